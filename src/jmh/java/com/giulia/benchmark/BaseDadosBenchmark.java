@@ -0,0 +1,82 @@
+package com.giulia.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.giulia.FinancasApplication;
+
+/**
+ * Sobe a aplicação com o perfil de teste (H2 em memória) e popula a base com
+ * {@code linhas} lançamentos, divididos entre usuários de 1000 lançamentos cada.
+ */
+@State(Scope.Benchmark)
+public class BaseDadosBenchmark {
+
+	static final int LANCAMENTOS_POR_USUARIO = 1000;
+	private static final String[] DESCRICOES = { "Mercado", "Aluguel", "Salário", "Energia", "Farmácia",
+			"Restaurante", "Combustível", "Internet" };
+
+	@Param({ "10000", "1000000" })
+	public int linhas;
+
+	public ConfigurableApplicationContext contexto;
+
+	// usuário "do meio" da base, usado nas consultas
+	public Long idUsuario;
+
+	@Setup(Level.Trial)
+	public void iniciar() {
+		contexto = new SpringApplicationBuilder(FinancasApplication.class).profiles("test")
+				.web(WebApplicationType.NONE).logStartupInfo(false).run("--spring.jpa.show-sql=false");
+		popular(contexto.getBean(JdbcTemplate.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		contexto.close();
+	}
+
+	public <T> T bean(Class<T> tipo) {
+		return contexto.getBean(tipo);
+	}
+
+	private void popular(JdbcTemplate jdbc) {
+		int usuarios = Math.max(1, linhas / LANCAMENTOS_POR_USUARIO);
+		List<Object[]> lote = new ArrayList<>();
+		for (int u = 0; u < usuarios; u++) {
+			lote.add(new Object[] { "usuario " + u, "usuario" + u + "@email.com", "123" });
+		}
+		jdbc.batchUpdate("insert into financas.usuario (nome, email, senha) values (?, ?, ?)", lote);
+		List<Long> ids = jdbc.queryForList("select id from financas.usuario order by id", Long.class);
+		idUsuario = ids.get(ids.size() / 2);
+
+		lote.clear();
+		Date hoje = Date.valueOf(LocalDate.now());
+		for (int i = 0; i < linhas; i++) {
+			Long usuario = ids.get(i % ids.size());
+			lote.add(new Object[] { DESCRICOES[i % DESCRICOES.length] + " " + i, i % 12 + 1, 2015 + i % 5,
+					BigDecimal.valueOf(i % 1000 + 1), i % 3 == 0 ? "RECEITA" : "DESPESA",
+					i % 2 == 0 ? "EFETIVADO" : "PENDENTE", usuario, hoje });
+			if (lote.size() == 10000 || i == linhas - 1) {
+				jdbc.batchUpdate("insert into financas.lancamento "
+						+ "(id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao) "
+						+ "values (next value for financas.lancamento_id_seq, ?, ?, ?, ?, ?, ?, ?, ?, 0)", lote);
+				lote.clear();
+			}
+		}
+	}
+}
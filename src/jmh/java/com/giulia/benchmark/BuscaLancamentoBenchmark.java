@@ -0,0 +1,83 @@
+package com.giulia.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.UsuarioService;
+
+/**
+ * Compara a busca antiga (Example + CONTAINING em todos os campos populados) com a
+ * consulta pelo índice (id_usuario, ano, mes) usada hoje por {@code LancamentoService.buscar}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaLancamentoBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Filtros {
+
+		LancamentoRepository repository;
+		LancamentoService service;
+		Lancamento filtroAno;
+		Lancamento filtroDescricao;
+
+		@Setup(Level.Trial)
+		public void preparar(BaseDadosBenchmark base) {
+			repository = base.bean(LancamentoRepository.class);
+			service = base.bean(LancamentoService.class);
+			UsuarioService usuarioService = base.bean(UsuarioService.class);
+
+			// igual ao LancamentoController: o filtro leva o usuário carregado da base
+			filtroAno = Lancamento.builder().usuario(usuarioService.obterPorId(base.idUsuario).get()).ano(2017)
+					.mes(6).build();
+			filtroDescricao = Lancamento.builder().usuario(filtroAno.getUsuario()).descricao("mercado").build();
+		}
+	}
+
+	private static List<Lancamento> porExample(LancamentoRepository repository, Lancamento filtro) {
+		return repository.findAll(Example.of(filtro,
+				ExampleMatcher.matching().withIgnoreCase().withStringMatcher(StringMatcher.CONTAINING)));
+	}
+
+	@Benchmark
+	public List<Lancamento> exampleAnoMes(Filtros filtros) {
+		return porExample(filtros.repository, filtros.filtroAno);
+	}
+
+	@Benchmark
+	public List<LancamentoDto> indiceAnoMes(Filtros filtros) {
+		return filtros.service.buscar(filtros.filtroAno);
+	}
+
+	@Benchmark
+	public List<Lancamento> exampleDescricao(Filtros filtros) {
+		return porExample(filtros.repository, filtros.filtroDescricao);
+	}
+
+	@Benchmark
+	public List<LancamentoDto> indiceDescricao(Filtros filtros) {
+		return filtros.service.buscar(filtros.filtroDescricao);
+	}
+}
@@ -0,0 +1,108 @@
+package com.giulia.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.giulia.dto.LancamentoDto;
+
+/**
+ * Resposta de uma busca grande (-p linhas, padrão 10 mil LancamentoDto) em JSON, CBOR e Smile:
+ * CPU para serializar, desserializar e serializar+gzip (o que o Tomcat faz com
+ * server.compression). Os tamanhos, com e sem gzip, saem no início de cada formato
+ * ("tamanho json: ..."). Alocação por operação com -Djmh.args="FormatoResposta -prof gc".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatoRespostaBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	String formato;
+
+	@Param({ "10000" })
+	int linhas;
+
+	ObjectMapper mapper;
+	CollectionType tipoLista;
+	List<LancamentoDto> lancamentos;
+	byte[] serializado;
+
+	@Setup
+	public void preparar() throws IOException {
+		mapper = new ObjectMapper(fabrica(formato));
+		tipoLista = mapper.getTypeFactory().constructCollectionType(List.class, LancamentoDto.class);
+		String[] descricoes = { "Mercado", "Aluguel", "Energia elétrica", "Salário", "Restaurante" };
+		lancamentos = new ArrayList<>(linhas);
+		for (int i = 0; i < linhas; i++) {
+			lancamentos.add(new LancamentoDto((long) i + 1, descricoes[i % descricoes.length], i % 12 + 1, 2019,
+					BigDecimal.valueOf(1000 + i * 37L, 2), 42l, i % 3 == 0 ? "RECEITA" : "DESPESA", "PENDENTE", 0l));
+		}
+		serializado = mapper.writeValueAsBytes(lancamentos);
+		System.out.printf("%ntamanho %s: %d bytes, %d bytes com gzip (%d linhas)%n", formato, serializado.length,
+				gzip(serializado).length, linhas);
+	}
+
+	private static JsonFactory fabrica(String formato) {
+		switch (formato) {
+		case "cbor":
+			return new CBORFactory();
+		case "smile":
+			return new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+		default:
+			return new JsonFactory();
+		}
+	}
+
+	private static byte[] gzip(byte[] dados) throws IOException {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(dados);
+		}
+		return saida.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] serializar() throws IOException {
+		return mapper.writeValueAsBytes(lancamentos);
+	}
+
+	@Benchmark
+	public byte[] serializarComGzip() throws IOException {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream(serializado.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			mapper.writeValue(gzip, lancamentos);
+		}
+		return saida.toByteArray();
+	}
+
+	@Benchmark
+	public List<LancamentoDto> desserializar() throws IOException {
+		return mapper.readValue(serializado, tipoLista);
+	}
+}
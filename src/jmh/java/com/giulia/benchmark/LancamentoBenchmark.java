@@ -0,0 +1,94 @@
+package com.giulia.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.controllers.LancamentoController;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.UsuarioService;
+
+/**
+ * Caminhos quentes de uma requisição de lançamento: validação, conversão do DTO no
+ * controller, busca, saldo e serialização JSON da entidade. Os que tocam a base rodam
+ * com os volumes de {@link BaseDadosBenchmark} ({@code -p linhas=10000,1000000}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Dados {
+
+		LancamentoService service;
+		LancamentoController controller;
+		ObjectMapper objectMapper;
+		Long idUsuario;
+		Lancamento lancamento;
+		Lancamento filtro;
+		LancamentoDto dto;
+
+		@Setup(Level.Trial)
+		public void preparar(BaseDadosBenchmark base) {
+			service = base.bean(LancamentoService.class);
+			controller = base.bean(LancamentoController.class);
+			objectMapper = base.bean(ObjectMapper.class);
+			idUsuario = base.idUsuario;
+
+			lancamento = Lancamento.builder().id(1l).descricao("Mercado").mes(6).ano(2017)
+					.valor(BigDecimal.valueOf(150)).tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE)
+					.usuario(base.bean(UsuarioService.class).obterPorId(idUsuario).get())
+					.dataCadastro(LocalDate.now()).build();
+			filtro = Lancamento.builder().usuario(lancamento.getUsuario()).ano(2017).mes(6).build();
+			dto = LancamentoDto.de(lancamento);
+		}
+	}
+
+	@Benchmark
+	public Lancamento validar(Dados dados) {
+		dados.service.validar(dados.lancamento);
+		return dados.lancamento;
+	}
+
+	@Benchmark
+	public Lancamento converter(Dados dados) {
+		return dados.controller.converter(dados.dto);
+	}
+
+	@Benchmark
+	public byte[] serializarLancamento(Dados dados) throws JsonProcessingException {
+		return dados.objectMapper.writeValueAsBytes(dados.lancamento);
+	}
+
+	@Benchmark
+	public List<LancamentoDto> buscar(Dados dados) {
+		return dados.service.buscar(dados.filtro);
+	}
+
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario(Dados dados) {
+		return dados.service.obterSaldoPorUsuario(dados.idUsuario);
+	}
+}
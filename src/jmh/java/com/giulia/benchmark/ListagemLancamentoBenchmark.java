@@ -0,0 +1,81 @@
+package com.giulia.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.UsuarioService;
+
+/**
+ * Custo de uma resposta de listagem (consulta + JSON) com entidades e com a projeção
+ * em LancamentoDto. Rodar com {@code -prof gc} para ver alocação por operação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListagemLancamentoBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Listagem {
+
+		EntityManagerFactory entityManagerFactory;
+		LancamentoService service;
+		ObjectMapper objectMapper;
+		Lancamento filtro;
+		Long idUsuario;
+
+		@Setup(Level.Trial)
+		public void preparar(BaseDadosBenchmark base) {
+			entityManagerFactory = base.bean(EntityManagerFactory.class);
+			service = base.bean(LancamentoService.class);
+			objectMapper = base.bean(ObjectMapper.class);
+			idUsuario = base.idUsuario;
+			filtro = Lancamento.builder()
+					.usuario(base.bean(UsuarioService.class).obterPorId(idUsuario).get()).build();
+		}
+	}
+
+	// como era antes: entidades gerenciadas (com o usuário) serializadas direto
+	@Benchmark
+	public byte[] entidades(Listagem listagem) throws JsonProcessingException {
+		EntityManager entityManager = listagem.entityManagerFactory.createEntityManager();
+		try {
+			EntityGraph<Lancamento> comUsuario = entityManager.createEntityGraph(Lancamento.class);
+			comUsuario.addAttributeNodes("usuario"); // o usuário era EAGER
+			List<Lancamento> lancamentos = entityManager
+					.createQuery("select l from Lancamento l where l.usuario.id = :idUsuario", Lancamento.class)
+					.setParameter("idUsuario", listagem.idUsuario)
+					.setHint("javax.persistence.loadgraph", comUsuario)
+					.getResultList();
+			return listagem.objectMapper.writeValueAsBytes(lancamentos);
+		} finally {
+			entityManager.close();
+		}
+	}
+
+	@Benchmark
+	public byte[] projecaoDto(Listagem listagem) throws JsonProcessingException {
+		return listagem.objectMapper.writeValueAsBytes(listagem.service.buscar(listagem.filtro));
+	}
+}
@@ -0,0 +1,47 @@
+package com.giulia.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.giulia.service.impl.SenhaServiceImp;
+
+/**
+ * Vazão da verificação de senha no login para cada custo do BCrypt
+ * ({@code financas.senha.custo}); cada +1 no custo dobra o tempo por verificação.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SenhaBenchmark {
+
+	@Param({ "8", "10", "12" })
+	int custo;
+
+	SenhaServiceImp senhaService;
+	String hash;
+
+	@Setup
+	public void preparar() {
+		senhaService = new SenhaServiceImp(custo, 1, 1);
+		hash = senhaService.criptografar("senha-do-usuario");
+	}
+
+	@Benchmark
+	public boolean conferir() {
+		return senhaService.confere("senha-do-usuario", hash);
+	}
+}
@@ -0,0 +1,110 @@
+package com.giulia.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.giulia.execucao.ThreadsVirtuais;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Carga de requisições que bloqueiam: cada uma espera {@code foraDoBancoMs} fora do banco (outro
+ * serviço, disco) e segura uma das 10 conexões do Hikari por {@code noBancoMs}. Compara o pool fixo
+ * de 200 threads do Tomcat com uma thread virtual por requisição atrás do semáforo do
+ * LimiteRequisicoesFilter (1000 vagas). O tempo no banco é uma pausa com a conexão em mãos, para
+ * medir a disputa pelo pool e não o lock interno do H2. O modo virtual precisa de JDK 21+.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadsVirtuaisBenchmark {
+
+	static final int REQUISICOES = 2000;
+
+	@Param({ "plataforma", "virtual" })
+	public String modo;
+
+	@Param({ "0", "100" })
+	public int foraDoBancoMs;
+
+	@Param({ "2" })
+	public int noBancoMs;
+
+	HikariDataSource dataSource;
+	ExecutorService executor;
+	Semaphore vagas;
+
+	@Setup(Level.Trial)
+	public void iniciar() {
+		dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl("jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1");
+		dataSource.setMaximumPoolSize(10);
+		boolean virtual = "virtual".equals(modo);
+		executor = virtual ? ThreadsVirtuais.executor("carga-") : Executors.newFixedThreadPool(200);
+		vagas = virtual ? new Semaphore(1000) : null;
+	}
+
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		executor.shutdownNow();
+		dataSource.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(REQUISICOES)
+	public void requisicoes() throws InterruptedException {
+		CountDownLatch atendidas = new CountDownLatch(REQUISICOES);
+		for (int i = 0; i < REQUISICOES; i++) {
+			executor.execute(() -> {
+				try {
+					atender();
+				} finally {
+					atendidas.countDown();
+				}
+			});
+		}
+		atendidas.await();
+	}
+
+	private void atender() {
+		if (vagas != null) {
+			vagas.acquireUninterruptibly();
+		}
+		try {
+			Thread.sleep(foraDoBancoMs);
+			try (Connection conexao = dataSource.getConnection(); Statement statement = conexao.createStatement()) {
+				Thread.sleep(noBancoMs);
+				statement.execute("select 1");
+			}
+		} catch (InterruptedException | SQLException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (vagas != null) {
+				vagas.release();
+			}
+		}
+	}
+}
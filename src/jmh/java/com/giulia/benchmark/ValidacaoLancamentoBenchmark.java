@@ -0,0 +1,79 @@
+package com.giulia.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.validacao.ValidadorLancamento;
+
+/**
+ * Validação e conversão de tipo sem base de dados. Com o profiler de GC
+ * ({@code -Djmh.args="ValidacaoLancamento -prof gc"}) o {@code gc.alloc.rate.norm} de
+ * {@code verificar} e {@code tipoPorNome} deve ficar em ~0 B/op; {@code tipoValueOfInvalido}
+ * mostra o custo da exceção que o valueOf lança para um nome desconhecido.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidacaoLancamentoBenchmark {
+
+	Lancamento valido;
+	Lancamento invalido;
+	String tipo;
+	String tipoDesconhecido;
+
+	@Setup
+	public void preparar() {
+		valido = Lancamento.builder().descricao("  Mercado").mes(6).ano(2017).valor(BigDecimal.valueOf(150))
+				.tipo(TipoLancamento.DESPESA).usuario(Usuario.builder().id(1l).build()).build();
+		invalido = Lancamento.builder().descricao("   ").mes(13).ano(17).valor(BigDecimal.ZERO).build();
+		// cópias: o nome não é a constante internada do enum, como no JSON desserializado
+		tipo = new String("DESPESA");
+		tipoDesconhecido = new String("DESPESAS");
+	}
+
+	@Benchmark
+	public int verificar() {
+		return ValidadorLancamento.verificar(valido);
+	}
+
+	@Benchmark
+	public int verificarComViolacoes() {
+		return ValidadorLancamento.verificar(invalido);
+	}
+
+	@Benchmark
+	public TipoLancamento tipoPorNome() {
+		return TipoLancamento.porNome(tipo);
+	}
+
+	@Benchmark
+	public TipoLancamento tipoPorNomeDesconhecido() {
+		return TipoLancamento.porNome(tipoDesconhecido);
+	}
+
+	@Benchmark
+	public TipoLancamento tipoValueOfInvalido() {
+		try {
+			return TipoLancamento.valueOf(tipoDesconhecido);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
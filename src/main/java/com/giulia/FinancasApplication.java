@@ -1,14 +1,27 @@
 package com.giulia;
 
-
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 public class FinancasApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(FinancasApplication.class, args);
 	}
 
+	// sem open-in-view: associações LAZY não carregadas saem no JSON só com o id, sem consulta
+	@Bean
+	public Hibernate5Module hibernate5Module() {
+		return new Hibernate5Module().configure(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS,
+				true);
+	}
+
 }
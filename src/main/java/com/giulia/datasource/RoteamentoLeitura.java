@@ -0,0 +1,62 @@
+package com.giulia.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Atraso da réplica: quem acabou de gravar (usuário, lançamento, email) lê do primário por
+// financas.replica.fixacao-s segundos, para não ver o próprio dado ainda desatualizado.
+// Sem a réplica habilitada tudo já vai ao primário e isto não tem efeito.
+@Component
+public class RoteamentoLeitura {
+
+	private static final ThreadLocal<Boolean> PRIMARIO = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	private final Cache<String, Boolean> escritasRecentes;
+
+	public RoteamentoLeitura(@Value("${financas.replica.fixacao-s:5}") long fixacaoSegundos,
+			@Value("${financas.replica.maximo-fixados:100000}") long maximo) {
+		this.escritasRecentes = Caffeine.newBuilder().maximumSize(maximo)
+				.expireAfterWrite(fixacaoSegundos, TimeUnit.SECONDS).build();
+	}
+
+	public static String usuario(Long id) {
+		return "usuario:" + id;
+	}
+
+	public static String lancamento(Long id) {
+		return "lancamento:" + id;
+	}
+
+	public static String email(String email) {
+		return "email:" + email;
+	}
+
+	static boolean noPrimario() {
+		return PRIMARIO.get();
+	}
+
+	public void registrarEscrita(String... chaves) {
+		for (String chave : chaves) {
+			escritasRecentes.put(chave, Boolean.TRUE);
+		}
+	}
+
+	// executa a consulta no primário se a chave foi gravada há pouco, senão segue o roteamento normal
+	public <T> T consultar(String chave, Supplier<T> consulta) {
+		if (noPrimario() || escritasRecentes.getIfPresent(chave) == null) {
+			return consulta.get();
+		}
+		PRIMARIO.set(Boolean.TRUE);
+		try {
+			return consulta.get();
+		} finally {
+			PRIMARIO.remove();
+		}
+	}
+}
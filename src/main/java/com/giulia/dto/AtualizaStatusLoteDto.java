@@ -0,0 +1,21 @@
+package com.giulia.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// atualização de status em lote: pelos ids informados ou por todos os lançamentos do ano/mês
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizaStatusLoteDto {
+	private String status;
+	private Long usuario;
+	private Integer ano;
+	private Integer mes;
+	private List<Long> ids;
+}
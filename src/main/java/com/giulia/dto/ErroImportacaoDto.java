@@ -0,0 +1,21 @@
+package com.giulia.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroImportacaoDto {
+	private long linha; // posição do lançamento no arquivo (começando em 1)
+	private String mensagem;
+	private List<ErroValidacaoDto> erros; // violações de validação do lançamento, quando for o caso
+
+	public ErroImportacaoDto(long linha, String mensagem) {
+		this(linha, mensagem, Collections.emptyList());
+	}
+}
@@ -0,0 +1,28 @@
+package com.giulia.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.giulia.service.validacao.ErroValidacao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Uma violação na resposta 400: o código estável (ErroValidacao), o campo e a mensagem
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroValidacaoDto {
+	private String codigo;
+	private String campo;
+	private String mensagem;
+
+	public static List<ErroValidacaoDto> de(List<ErroValidacao> erros) {
+		List<ErroValidacaoDto> dtos = new ArrayList<>(erros.size());
+		for (ErroValidacao erro : erros) {
+			dtos.add(new ErroValidacaoDto(erro.name(), erro.getCampo(), erro.getMensagem()));
+		}
+		return dtos;
+	}
+}
@@ -2,12 +2,20 @@ package com.giulia.dto;
 
 import java.math.BigDecimal;
 
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter@Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class LancamentoDto {
 	private Long id;
 	private String descricao;
@@ -17,4 +25,19 @@ public class LancamentoDto {
 	private Long usuario;
 	private String tipo;
 	private String status;
+	private Long versao; // devolvida pelo cliente no atualizar (travamento otimista)
+
+	// usado nas consultas "select new" (projeção direto do banco)
+	public LancamentoDto(Long id, String descricao, Integer mes, Integer ano, BigDecimal valor, Long usuario,
+			TipoLancamento tipo, StatusLancamento status, Long versao) {
+		this(id, descricao, mes, ano, valor, usuario, tipo == null ? null : tipo.name(),
+				status == null ? null : status.name(), versao);
+	}
+
+	public static LancamentoDto de(Lancamento lancamento) {
+		Long usuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+		return new LancamentoDto(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+				lancamento.getAno(), lancamento.getValor(), usuario, lancamento.getTipo(), lancamento.getStatus(),
+				lancamento.getVersao());
+	}
 }
@@ -0,0 +1,15 @@
+package com.giulia.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaLancamentoDto {
+	private List<LancamentoDto> lancamentos;
+	private Long proximoCursor; // null quando não há mais páginas
+}
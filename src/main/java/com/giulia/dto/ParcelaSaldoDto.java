@@ -0,0 +1,40 @@
+package com.giulia.dto;
+
+import java.math.BigDecimal;
+
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Parte de um lançamento que interessa ao saldo: de quem, quando, qual tipo e quanto.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParcelaSaldoDto {
+
+	private Long usuario;
+	private Integer ano;
+	private Integer mes;
+	private TipoLancamento tipo;
+	private BigDecimal valor;
+
+	public static ParcelaSaldoDto de(Lancamento lancamento) {
+		Long usuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+		return new ParcelaSaldoDto(usuario, lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(),
+				lancamento.getValor());
+	}
+
+	public boolean isCompleta() {
+		return usuario != null && ano != null && mes != null && tipo != null && valor != null;
+	}
+
+	// mesma contribuição para o saldo (o BigDecimal do banco pode vir com outra escala)
+	public boolean mesmoEfeito(ParcelaSaldoDto outra) {
+		return outra != null && isCompleta() && outra.isCompleta() && usuario.equals(outra.usuario)
+				&& ano.equals(outra.ano) && mes.equals(outra.mes) && tipo == outra.tipo
+				&& valor.compareTo(outra.valor) == 0;
+	}
+}
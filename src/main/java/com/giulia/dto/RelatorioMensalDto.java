@@ -0,0 +1,22 @@
+package com.giulia.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Uma linha do relatório de fluxo de caixa: totais do mês e saldo acumulado até ele
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioMensalDto {
+	private Integer ano;
+	private Integer mes;
+	private BigDecimal receitas;
+	private BigDecimal despesas;
+	private BigDecimal saldo;
+	private BigDecimal acumulado;
+}
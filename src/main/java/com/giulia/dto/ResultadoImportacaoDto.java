@@ -0,0 +1,28 @@
+package com.giulia.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ResultadoImportacaoDto {
+
+	// limite de erros detalhados na resposta; acima disso só a contagem
+	public static final int MAXIMO_ERROS = 1000;
+
+	private long importados;
+	private long rejeitados;
+	private List<ErroImportacaoDto> erros = new ArrayList<>();
+
+	public void adicionarErro(long linha, String mensagem) {
+		adicionarErro(new ErroImportacaoDto(linha, mensagem));
+	}
+
+	public void adicionarErro(ErroImportacaoDto erro) {
+		rejeitados++;
+		if (erros.size() < MAXIMO_ERROS) {
+			erros.add(erro);
+		}
+	}
+}
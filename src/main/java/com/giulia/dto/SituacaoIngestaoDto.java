@@ -0,0 +1,23 @@
+package com.giulia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Acompanhamento de um lançamento recebido pela fila de gravação assíncrona
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SituacaoIngestaoDto {
+
+	public static final String PENDENTE = "PENDENTE";
+	public static final String GRAVADO = "GRAVADO";
+	public static final String ERRO = "ERRO";
+
+	private String protocolo;
+	private String situacao;
+	private Long lancamento; // id, depois de gravado
+	private String mensagem; // motivo, quando deu erro
+}
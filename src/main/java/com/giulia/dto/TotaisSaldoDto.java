@@ -0,0 +1,18 @@
+package com.giulia.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+// Soma de receitas e despesas de um conjunto de eventos (zero quando não há nenhum)
+@Data
+public class TotaisSaldoDto {
+
+	private final BigDecimal receitas;
+	private final BigDecimal despesas;
+
+	public TotaisSaldoDto(BigDecimal receitas, BigDecimal despesas) {
+		this.receitas = receitas == null ? BigDecimal.ZERO : receitas;
+		this.despesas = despesas == null ? BigDecimal.ZERO : despesas;
+	}
+}
@@ -0,0 +1,12 @@
+package com.giulia.exception;
+
+// A fila de gravação assíncrona está no limite: o cliente deve tentar de novo mais tarde
+public class FilaCheiaException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public FilaCheiaException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.giulia.exception;
+
+// Uma requisição com a mesma chave de idempotência ainda não terminou
+public class RequisicaoEmAndamentoException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RequisicaoEmAndamentoException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.giulia.exception;
+
+import java.util.List;
+
+import com.giulia.service.validacao.ErroValidacao;
+import com.giulia.service.validacao.ValidadorLancamento;
+
+// Todas as violações de um lançamento de uma vez; a mensagem é a da primeira (ordem dos campos)
+public class ValidacaoLancamentoException extends RegraNegocioException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<ErroValidacao> erros;
+
+	public ValidacaoLancamentoException(int violacoes) {
+		this(ValidadorLancamento.erros(violacoes));
+	}
+
+	private ValidacaoLancamentoException(List<ErroValidacao> erros) {
+		super(erros.get(0).getMensagem());
+		this.erros = erros;
+	}
+
+	public List<ErroValidacao> getErros() {
+		return erros;
+	}
+}
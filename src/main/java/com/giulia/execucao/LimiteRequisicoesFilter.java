@@ -0,0 +1,96 @@
+package com.giulia.execucao;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Contrapressão no modo de threads virtuais: sem o teto do pool do Tomcat, nada impede milhares
+// de requisições de ficarem na fila do Hikari até o connection-timeout. Acima do limite a
+// requisição espera no máximo esperaMs por uma vaga e depois recebe 503, liberando a thread.
+// Requisições assíncronas (Callable, DeferredResult...) só devolvem a vaga quando a resposta
+// termina: a parte que roda no executor também ocupa conexão do banco.
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+	private final Semaphore vagas;
+	private final long esperaMs;
+
+	public LimiteRequisicoesFilter(int simultaneas, long esperaMs) {
+		this.vagas = new Semaphore(simultaneas);
+		this.esperaMs = esperaMs;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		boolean obteve;
+		try {
+			obteve = vagas.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			obteve = false;
+		}
+		if (!obteve) {
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, tente novamente");
+			return;
+		}
+		boolean assincrona = false;
+		try {
+			chain.doFilter(request, response);
+			assincrona = request.isAsyncStarted();
+		} finally {
+			if (assincrona) {
+				request.getAsyncContext().addListener(new LiberarVaga());
+			} else {
+				vagas.release();
+			}
+		}
+	}
+
+	int vagasLivres() {
+		return vagas.availablePermits();
+	}
+
+	// timeout e erro ainda são seguidos do complete: a vaga é devolvida uma vez só
+	private class LiberarVaga implements AsyncListener {
+
+		private final AtomicBoolean liberada = new AtomicBoolean();
+
+		@Override
+		public void onComplete(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onError(AsyncEvent evento) {
+			liberar();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent evento) {
+			// novo ciclo assíncrono na mesma requisição: o listener precisa ser registrado de novo
+			evento.getAsyncContext().addListener(this);
+		}
+
+		private void liberar() {
+			if (liberada.compareAndSet(false, true)) {
+				vagas.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.giulia.execucao;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Threads virtuais do JDK 21+ obtidas por reflexão: o projeto continua compilando para Java 8
+// e o modo só pode ser ligado quando a aplicação roda num JDK que as tenha.
+public final class ThreadsVirtuais {
+
+	private ThreadsVirtuais() {
+	}
+
+	public static boolean disponiveis() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	// uma thread virtual nova por tarefa, com nome prefixo0, prefixo1, ...
+	public static ExecutorService executor(String prefixo) {
+		try {
+			Class<?> construtor = Class.forName("java.lang.Thread$Builder");
+			Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+			virtual = construtor.getMethod("name", String.class, long.class).invoke(virtual, prefixo, 0L);
+			ThreadFactory fabrica = (ThreadFactory) construtor.getMethod("factory").invoke(virtual);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, fabrica);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Threads virtuais exigem JDK 21 ou superior (rodando no "
+					+ System.getProperty("java.version") + ")", e);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.giulia.execucao;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+import lombok.extern.slf4j.Slf4j;
+
+// financas.threads-virtuais.habilitado=true (JDK 21+): cada requisição do Tomcat, cada resposta
+// assíncrona do MVC (StreamingResponseBody, CompletableFuture) e cada @Async roda numa thread
+// virtual. O limite passa a ser o pool do Hikari, protegido pelo LimiteRequisicoesFilter.
+// A verificação de senha (BCrypt, CPU) continua no executor limitado do SenhaService.
+@Configuration
+@ConditionalOnProperty(name = "financas.threads-virtuais.habilitado", havingValue = "true")
+@Slf4j
+public class ThreadsVirtuaisConfig {
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService executorThreadsVirtuais() {
+		ExecutorService executor = ThreadsVirtuais.executor("requisicao-");
+		log.info("Requisições e tarefas assíncronas em threads virtuais");
+		return executor;
+	}
+
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tomcatEmThreadsVirtuais(
+			ExecutorService executorThreadsVirtuais) {
+		return fabrica -> fabrica.addConnectorCustomizers(
+				conector -> conector.getProtocolHandler().setExecutor(executorThreadsVirtuais));
+	}
+
+	// o nome do executor padrão do Spring Boot (MVC assíncrono) e o procurado pelo @Async
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public AsyncTaskExecutor applicationTaskExecutor(ExecutorService executorThreadsVirtuais) {
+		return new ConcurrentTaskExecutor(executorThreadsVirtuais);
+	}
+
+	@Bean
+	public FilterRegistrationBean<LimiteRequisicoesFilter> limiteRequisicoesFilter(
+			@Value("${financas.threads-virtuais.requisicoes-simultaneas:1000}") int simultaneas,
+			@Value("${financas.threads-virtuais.espera-ms:2000}") long esperaMs) {
+		FilterRegistrationBean<LimiteRequisicoesFilter> registro = new FilterRegistrationBean<>(
+				new LimiteRequisicoesFilter(simultaneas, esperaMs));
+		registro.setOrder(Ordered.HIGHEST_PRECEDENCE); // antes de qualquer trabalho na requisição
+		return registro;
+	}
+}
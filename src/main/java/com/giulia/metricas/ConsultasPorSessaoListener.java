@@ -0,0 +1,57 @@
+package com.giulia.metricas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.BaseSessionEventListener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+// Quantidade e tempo de statements JDBC por sessão do Hibernate (sem open-in-view, uma por
+// transação de serviço; a contagem por requisição fica no ContagemConsultasFilter). Criado pelo Hibernate (hibernate.session.events.auto), por isso usa o
+// registro global do Micrometer, onde o Spring Boot também registra os seus.
+public class ConsultasPorSessaoListener extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	static final String CONSULTAS = "financas.hibernate.consultas";
+	static final String TEMPO = "financas.hibernate.tempo.consultas";
+
+	private int consultas;
+	private long nanos;
+	private long inicio;
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		inicio = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		consultas++;
+		nanos += System.nanoTime() - inicio;
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		inicio = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		consultas++;
+		nanos += System.nanoTime() - inicio;
+	}
+
+	@Override
+	public void end() {
+		if (consultas == 0) {
+			return;
+		}
+		DistributionSummary.builder(CONSULTAS).baseUnit("statements").publishPercentileHistogram()
+				.register(Metrics.globalRegistry).record(consultas);
+		Timer.builder(TEMPO).publishPercentileHistogram().register(Metrics.globalRegistry).record(nanos,
+				TimeUnit.NANOSECONDS);
+	}
+}
@@ -0,0 +1,34 @@
+package com.giulia.metricas;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+// Fora de produção, devolve no cabeçalho quantos statements a requisição executou até
+// escrever a resposta, para pegar N+1 ainda no desenvolvimento.
+@ControllerAdvice
+@Profile("!prod")
+public class ContagemConsultasAdvice implements ResponseBodyAdvice<Object> {
+
+	public static final String CABECALHO = "X-Quantidade-Consultas";
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		response.getHeaders().set(CABECALHO, String.valueOf(QueryCountHolder.getGrandTotal().getTotal()));
+		return body;
+	}
+}
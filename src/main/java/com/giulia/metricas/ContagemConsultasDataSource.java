@@ -0,0 +1,35 @@
+package com.giulia.metricas;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// Envolve o DataSource com o datasource-proxy: conta os statements de cada thread
+// (QueryCountHolder, zerado por requisição no ContagemConsultasFilter) e registra no log,
+// com os parâmetros, todo statement mais lento que financas.consultas.lenta-ms.
+@Component
+public class ContagemConsultasDataSource implements BeanPostProcessor {
+
+	private final long limiteLentaMs;
+
+	public ContagemConsultasDataSource(@Value("${financas.consultas.lenta-ms:500}") long limiteLentaMs) {
+		this.limiteLentaMs = limiteLentaMs;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String nome) {
+		if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+			return bean;
+		}
+		return ProxyDataSourceBuilder.create((DataSource) bean).name(nome).countQuery()
+				.logSlowQueryBySlf4j(limiteLentaMs, TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN).build();
+	}
+}
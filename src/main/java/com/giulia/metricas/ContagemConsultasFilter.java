@@ -0,0 +1,25 @@
+package com.giulia.metricas;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+// Começa a contagem de statements de cada requisição do zero (a thread vem de um pool)
+@Component
+public class ContagemConsultasFilter extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		QueryCountHolder.clear();
+		chain.doFilter(request, response);
+	}
+}
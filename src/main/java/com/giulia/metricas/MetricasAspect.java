@@ -0,0 +1,103 @@
+package com.giulia.metricas;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.giulia.exception.ErroAutenticacao;
+import com.giulia.exception.RegraNegocioException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Tempo de cada método de serviço e de repositório (financas.metodo, com histograma para
+// percentis no Prometheus) e contagem das exceções de negócio por categoria de mensagem
+// (financas.erros). Os endpoints já são medidos pelo próprio Spring em http.server.requests.
+@Aspect
+@Component
+public class MetricasAspect {
+
+	static final String METODO = "financas.metodo";
+	static final String ERROS = "financas.erros";
+
+	// uma exceção atravessa vários serviços; só a chamada mais externa conta o erro
+	private static final ThreadLocal<Integer> PROFUNDIDADE = ThreadLocal.withInitial(() -> 0);
+
+	private final MeterRegistry registry;
+
+	public MetricasAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("execution(public * com.giulia.service.impl.*ServiceImp.*(..))")
+	public Object medirServico(ProceedingJoinPoint ponto) throws Throwable {
+		return medir(ponto, "servico");
+	}
+
+	@Around("execution(public * com.giulia.model.repository.*Repository.*(..))")
+	public Object medirRepositorio(ProceedingJoinPoint ponto) throws Throwable {
+		return medir(ponto, "repositorio");
+	}
+
+	private Object medir(ProceedingJoinPoint ponto, String camada) throws Throwable {
+		Timer.Sample inicio = Timer.start(registry);
+		int profundidade = PROFUNDIDADE.get();
+		PROFUNDIDADE.set(profundidade + 1);
+		Object resultado;
+		try {
+			resultado = ponto.proceed();
+		} catch (Throwable erro) {
+			registrar(ponto, camada, inicio, erro, profundidade == 0);
+			throw erro;
+		} finally {
+			PROFUNDIDADE.set(profundidade);
+		}
+		if (resultado instanceof CompletableFuture) { // ex.: autenticarAssincrono, termina em outra thread
+			((CompletableFuture<?>) resultado)
+					.whenComplete((valor, erro) -> registrar(ponto, camada, inicio, erro, profundidade == 0));
+		} else {
+			registrar(ponto, camada, inicio, null, profundidade == 0);
+		}
+		return resultado;
+	}
+
+	private void registrar(ProceedingJoinPoint ponto, String camada, Timer.Sample inicio, Throwable erro,
+			boolean externa) {
+		Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+		inicio.stop(Timer.builder(METODO).tag("camada", camada)
+				.tag("classe", classe(ponto))
+				.tag("metodo", ponto.getSignature().getName())
+				.tag("excecao", causa == null ? "none" : causa.getClass().getSimpleName())
+				.publishPercentileHistogram().register(registry));
+		if (externa && (causa instanceof RegraNegocioException || causa instanceof ErroAutenticacao)) {
+			registry.counter(ERROS, "tipo", causa.getClass().getSimpleName(), "categoria",
+					categoria(causa.getMessage())).increment();
+		}
+	}
+
+	// repositórios do Spring Data são proxies JDK: o nome útil é o da interface (ex.: LancamentoRepository)
+	private static String classe(ProceedingJoinPoint ponto) {
+		Class<?> tipo = ClassUtils.getUserClass(ponto.getTarget());
+		if (Proxy.isProxyClass(tipo) && tipo.getInterfaces().length > 0) {
+			tipo = tipo.getInterfaces()[0];
+		}
+		return tipo.getSimpleName();
+	}
+
+	// as mensagens são fixas no código; tira o que vem depois de ':' e números para não multiplicar séries
+	static String categoria(String mensagem) {
+		if (mensagem == null || mensagem.trim().isEmpty()) {
+			return "sem mensagem";
+		}
+		int separador = mensagem.indexOf(':');
+		String categoria = (separador < 0 ? mensagem : mensagem.substring(0, separador)).replaceAll("\\d+", "#")
+				.trim();
+		return categoria.length() > 80 ? categoria.substring(0, 80) : categoria;
+	}
+}
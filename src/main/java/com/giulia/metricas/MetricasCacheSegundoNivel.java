@@ -0,0 +1,42 @@
+package com.giulia.metricas;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import com.giulia.service.cache.CacheSegundoNivel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Taxa de acerto de cada região do cache de segundo nível (financas.cache.acertos, entre 0 e 1).
+// As regiões de consulta só existem depois do primeiro uso; até lá a taxa é NaN.
+// Não é um MeterBinder: o registro é criado antes do DataSource (métricas do Hikari) e o binder
+// dependeria do EntityManagerFactory, que depende do DataSource.
+@Component
+public class MetricasCacheSegundoNivel {
+
+	static final String ACERTOS = "financas.cache.acertos";
+
+	public MetricasCacheSegundoNivel(MeterRegistry registry, EntityManagerFactory entityManagerFactory) {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		for (String regiao : CacheSegundoNivel.REGIOES) {
+			Gauge.builder(ACERTOS, estatisticas, e -> taxaDeAcerto(e, regiao)).tag("regiao", regiao)
+					.description("acertos / (acertos + faltas) na região do cache de segundo nível")
+					.register(registry);
+		}
+	}
+
+	static double taxaDeAcerto(Statistics estatisticas, String regiao) {
+		CacheRegionStatistics regiaoEstatisticas = estatisticas.getCacheRegionStatistics(regiao);
+		if (regiaoEstatisticas == null) {
+			return Double.NaN;
+		}
+		long acertos = regiaoEstatisticas.getHitCount();
+		long total = acertos + regiaoEstatisticas.getMissCount();
+		return total == 0 ? Double.NaN : (double) acertos / total;
+	}
+}
@@ -0,0 +1,38 @@
+package com.giulia.model.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Chave de idempotência de um salvar: reservada antes do insert e concluída com o id gerado.
+// Enquanto o id é nulo a requisição original ainda está em andamento.
+@Entity
+@Table(name = "idempotencia", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia {
+
+	@Id
+	@Column(name = "chave")
+	private String chave;
+
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+
+	// token da requisição que detém a reserva: só ela conclui ou libera a chave
+	@Column(name = "dono", length = 36)
+	private String dono;
+
+	@Column(name = "data_criacao")
+	@Convert(converter = Jsr310JpaConverters.LocalDateTimeConverter.class)
+	private LocalDateTime dataCriacao;
+}
@@ -0,0 +1,84 @@
+package com.giulia.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoEventoLancamento;
+import com.giulia.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Histórico (só inserções) das escritas em lançamento, na ordem (dataHora, id).
+// CRIADO e ALTERADO trazem o lançamento inteiro como ficou; STATUS_ALTERADO só o status, para um
+// lançamento ou, sem idLancamento, para o ano/mês do usuário; REMOVIDO só a identificação.
+// receitas/despesas são o efeito do evento no saldo (negativos quando o valor sai).
+@Entity
+@Table(name = "evento_lancamento", schema = "financas", indexes = {
+		@Index(name = "idx_evento_lancamento_usuario_data", columnList = "id_usuario, data_hora"),
+		@Index(name = "idx_evento_lancamento_data", columnList = "data_hora") })
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoLancamento {
+
+	@Id
+	// mesma estratégia do lançamento: ids em blocos, inserts em lote
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_lancamento_id")
+	@SequenceGenerator(name = "evento_lancamento_id", schema = "financas", sequenceName = "evento_lancamento_id_seq", allocationSize = 50)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "evento")
+	@Enumerated(value = EnumType.STRING)
+	private TipoEventoLancamento evento;
+
+	@Column(name = "data_hora")
+	@Convert(converter = Jsr310JpaConverters.LocalDateTimeConverter.class)
+	private LocalDateTime dataHora;
+
+	@Column(name = "descricao")
+	private String descricao;
+
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Column(name = "valor")
+	private BigDecimal valor;
+
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+
+	@Column(name = "data_cadastro")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataCadastro;
+
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+}
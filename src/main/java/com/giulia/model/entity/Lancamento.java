@@ -3,6 +3,7 @@ package com.giulia.model.entity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import javax.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
 import com.giulia.model.enums.StatusLancamento;
@@ -11,10 +12,15 @@ import com.giulia.model.enums.TipoLancamento;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
-@Table(name = "lancamento", schema = "financas")
+@Table(name = "lancamento", schema = "financas", indexes = {
+		@Index(name = "idx_lancamento_usuario_ano_mes", columnList = "id_usuario, ano, mes, id") })
+// no PostgreSQL a tabela é particionada por ano (V7): filtrar pelo ano restringe a leitura à partição
+@DynamicUpdate // o update grava só as colunas alteradas
 @Builder
 @Data
 @NoArgsConstructor
@@ -22,7 +28,9 @@ import lombok.NoArgsConstructor;
 public class Lancamento {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	// sequência com alocação em blocos (pooled): permite ao Hibernate agrupar os inserts em lote
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id")
+	@SequenceGenerator(name = "lancamento_id", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
 	@Column(name = "id")
 	private Long id;
 
@@ -36,8 +44,11 @@ public class Lancamento {
 	private Integer ano;
 
 	// Relacionamento many-atual one-entidade relacionada
-	@ManyToOne
+	// LAZY: listagens e atualizações só precisam do id (que o proxy já tem, sem consulta)
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
+	@ToString.Exclude
+	@EqualsAndHashCode.Exclude
 	private Usuario usuario;
 
 	@Column(name = "valor")
@@ -53,5 +64,9 @@ public class Lancamento {
 
 	@Column(name = "status")
 	@Enumerated(value = EnumType.STRING) // isso é um check gravado pelo valor (string)
-	private StatusLancamento status;	
+	private StatusLancamento status;
+
+	@Version // travamento otimista: atualização com versão antiga é rejeitada
+	@Column(name = "versao", nullable = false)
+	private Long versao;
 }
@@ -0,0 +1,48 @@
+package com.giulia.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import javax.persistence.*;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Totais do usuário somando todos os eventos de lançamento até 'ate' (inclusive): o saldo numa
+// data é o instantâneo anterior mais os eventos entre os dois, sem percorrer o histórico inteiro.
+@Entity
+@Table(name = "saldo_instantaneo", schema = "financas", indexes = {
+		@Index(name = "idx_saldo_instantaneo_usuario_ate", columnList = "id_usuario, ate", unique = true),
+		@Index(name = "idx_saldo_instantaneo_ate", columnList = "ate") })
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoInstantaneo {
+
+	@Id
+	@Column(name = "id")
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "ate")
+	@Convert(converter = Jsr310JpaConverters.LocalDateTimeConverter.class)
+	private LocalDateTime ate;
+
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+
+	public BigDecimal getSaldo() {
+		return receitas.subtract(despesas);
+	}
+}
@@ -0,0 +1,53 @@
+package com.giulia.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.*;
+
+import com.giulia.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Totais de receitas e despesas do usuário em um mês, mantidos junto com o saldo geral.
+@Entity
+@Table(name = "saldo_mensal", schema = "financas")
+@IdClass(SaldoMensalId.class)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensal {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+
+	@Id
+	@Column(name = "mes")
+	private Integer mes;
+
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+
+	public SaldoMensalId getChave() {
+		return new SaldoMensalId(idUsuario, ano, mes);
+	}
+
+	public void acumular(TipoLancamento tipo, BigDecimal valor) {
+		if (tipo == TipoLancamento.RECEITA) {
+			receitas = receitas.add(valor);
+		} else if (tipo == TipoLancamento.DESPESA) {
+			despesas = despesas.add(valor);
+		}
+	}
+}
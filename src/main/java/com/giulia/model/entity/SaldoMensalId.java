@@ -0,0 +1,22 @@
+package com.giulia.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// chave composta do saldo mensal (usuário + ano + mês)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMensalId implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long idUsuario;
+
+	private Integer ano;
+
+	private Integer mes;
+}
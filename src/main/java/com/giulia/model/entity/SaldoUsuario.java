@@ -0,0 +1,45 @@
+package com.giulia.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.*;
+
+import com.giulia.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Saldo materializado do usuário: mantido pelas operações de escrita em lançamento,
+// para que a consulta de saldo seja uma busca pela chave primária.
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "receitas")
+	private BigDecimal receitas;
+
+	@Column(name = "despesas")
+	private BigDecimal despesas;
+
+	public BigDecimal getSaldo() {
+		return receitas.subtract(despesas);
+	}
+
+	public void acumular(TipoLancamento tipo, BigDecimal valor) {
+		if (tipo == TipoLancamento.RECEITA) {
+			receitas = receitas.add(valor);
+		} else if (tipo == TipoLancamento.DESPESA) {
+			despesas = despesas.add(valor);
+		}
+	}
+}
@@ -2,13 +2,18 @@ package com.giulia.model.entity;
 
 import javax.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "usuario", schema = "financas")
+@Table(name = "usuario", schema = "financas", indexes = {
+		@Index(name = "idx_usuario_email", columnList = "email", unique = true) })
+// fora do cache de segundo nível: o usuário fica só no cache do Spring (CacheUsuario), que é o
+// invalidado entre nós pelo InvalidacaoCacheUsuario
 @Builder
 @Data
 @NoArgsConstructor
@@ -28,7 +33,8 @@ public class Usuario {
 	@Column(name = "email")
 	private String email;
 	
-	@Column(name = "senha")
+	@Column(name = "senha", length = 60)
+	@JsonIgnore // hash BCrypt, nunca devolvido nas respostas
 	private String senha;
 	
 }
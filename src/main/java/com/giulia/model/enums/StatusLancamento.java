@@ -1,5 +1,46 @@
 package com.giulia.model.enums;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 public enum StatusLancamento {
 	PENDENTE, CANCELADO, EFETIVADO;
+
+	private static final Map<String, StatusLancamento> POR_NOME = new HashMap<>();
+
+	static {
+		for (StatusLancamento status : values()) {
+			POR_NOME.put(status.name(), status);
+		}
+	}
+
+	// como valueOf, mas nome desconhecido (ou null) devolve null em vez de lançar exceção
+	public static StatusLancamento porNome(String nome) {
+		return nome == null ? null : POR_NOME.get(nome);
+	}
+
+	// transições permitidas: pendente é efetivado ou cancelado, efetivado ainda pode ser cancelado
+	public boolean podeMudarPara(StatusLancamento destino) {
+		switch (this) {
+		case PENDENTE:
+			return destino == EFETIVADO || destino == CANCELADO;
+		case EFETIVADO:
+			return destino == CANCELADO;
+		default:
+			return false;
+		}
+	}
+
+	// status de onde se pode chegar ao destino, usados no filtro da atualização em lote
+	public static Set<StatusLancamento> origensPara(StatusLancamento destino) {
+		Set<StatusLancamento> origens = EnumSet.noneOf(StatusLancamento.class);
+		for (StatusLancamento status : values()) {
+			if (status.podeMudarPara(destino)) {
+				origens.add(status);
+			}
+		}
+		return origens;
+	}
 }
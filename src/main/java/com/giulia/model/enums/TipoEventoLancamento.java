@@ -0,0 +1,5 @@
+package com.giulia.model.enums;
+
+public enum TipoEventoLancamento {
+	CRIADO, ALTERADO, STATUS_ALTERADO, REMOVIDO
+}
@@ -1,5 +1,21 @@
 package com.giulia.model.enums;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum TipoLancamento {
-	RECEITA, DESPESA
+	RECEITA, DESPESA;
+
+	private static final Map<String, TipoLancamento> POR_NOME = new HashMap<>();
+
+	static {
+		for (TipoLancamento tipo : values()) {
+			POR_NOME.put(tipo.name(), tipo);
+		}
+	}
+
+	// como valueOf, mas nome desconhecido (ou null) devolve null em vez de lançar exceção
+	public static TipoLancamento porNome(String nome) {
+		return nome == null ? null : POR_NOME.get(nome);
+	}
 }
@@ -0,0 +1,51 @@
+package com.giulia.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.giulia.model.entity.ChaveIdempotencia;
+
+// Cada operação roda e commita sozinha: a reserva precisa ficar visível para os outros nós
+// antes do lançamento ser gravado.
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, String> {
+
+	// insert direto (sem o select do merge): a chave primária decide quem chegou primeiro,
+	// o segundo recebe DataIntegrityViolationException
+	@Transactional
+	@Modifying
+	@Query(value = "insert into financas.idempotencia (chave, dono, data_criacao) values (:chave, :dono, :data)",
+			nativeQuery = true)
+	int reservar(@Param("chave") String chave, @Param("dono") String dono, @Param("data") LocalDateTime data);
+
+	// reserva abandonada (sem lançamento e mais antiga que o limite): o primeiro nó a trocar a data
+	// passa a ser o dono; para o segundo a reserva já não está vencida
+	@Transactional
+	@Modifying
+	@Query("update ChaveIdempotencia c set c.dono = :dono, c.dataCriacao = :data where c.chave = :chave "
+			+ "and c.idLancamento is null and c.dataCriacao < :limite")
+	int assumir(@Param("chave") String chave, @Param("limite") LocalDateTime limite, @Param("dono") String dono,
+			@Param("data") LocalDateTime data);
+
+	// concluir e liberar só valem para a própria reserva
+	@Transactional
+	@Modifying
+	@Query("update ChaveIdempotencia c set c.idLancamento = :idLancamento where c.chave = :chave "
+			+ "and c.dono = :dono")
+	int concluir(@Param("chave") String chave, @Param("dono") String dono,
+			@Param("idLancamento") Long idLancamento);
+
+	@Transactional
+	@Modifying
+	@Query("delete from ChaveIdempotencia c where c.chave = :chave and c.dono = :dono")
+	int liberar(@Param("chave") String chave, @Param("dono") String dono);
+
+	@Transactional
+	@Modifying
+	@Query("delete from ChaveIdempotencia c where c.dataCriacao < :limite")
+	int removerAnterioresA(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,36 @@
+package com.giulia.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.giulia.dto.TotaisSaldoDto;
+import com.giulia.model.entity.EventoLancamento;
+
+public interface EventoLancamentoRepository extends JpaRepository<EventoLancamento, Long> {
+
+	// efeito no saldo dos eventos do usuário em (desde, ate], pelo índice (id_usuario, data_hora)
+	@Query("select new com.giulia.dto.TotaisSaldoDto(sum(e.receitas), sum(e.despesas)) from EventoLancamento e "
+			+ "where e.idUsuario = :idUsuario and e.dataHora > :desde and e.dataHora <= :ate")
+	TotaisSaldoDto somar(@Param("idUsuario") Long idUsuario, @Param("desde") LocalDateTime desde,
+			@Param("ate") LocalDateTime ate);
+
+	// histórico completo do usuário na ordem em que foi gravado, lido em blocos (cursor no banco)
+	@QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+	Stream<EventoLancamento> findByIdUsuarioOrderByDataHoraAscIdAsc(Long idUsuario);
+
+	// usuários com eventos em (desde, ate], pelo índice de data_hora: só os eventos depois do
+	// último corte, e não o histórico inteiro
+	@Query("select distinct e.idUsuario from EventoLancamento e where e.dataHora > :desde and e.dataHora <= :ate")
+	List<Long> obterUsuariosComEventosEntre(@Param("desde") LocalDateTime desde, @Param("ate") LocalDateTime ate);
+
+	@Query("select distinct e.idUsuario from EventoLancamento e")
+	List<Long> obterUsuariosComEventos();
+}
@@ -1,20 +1,62 @@
 package com.giulia.model.repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.giulia.dto.ParcelaSaldoDto;
 import com.giulia.model.entity.Lancamento;
-import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.enums.StatusLancamento;
+
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
+
+	// lê o estado gravado no banco, sem dar flush em alterações pendentes da entidade
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	@Query("select new com.giulia.dto.ParcelaSaldoDto(l.usuario.id, l.ano, l.mes, l.tipo, l.valor) "
+			+ "from Lancamento l where l.id = :id")
+	Optional<ParcelaSaldoDto> obterParcelaSaldo(@Param("id") Long id);
+
+	// totais por ano/mês/tipo, usados para reconstruir o saldo materializado
+	@Query("select new com.giulia.dto.ParcelaSaldoDto(l.usuario.id, l.ano, l.mes, l.tipo, sum(l.valor)) "
+			+ "from Lancamento l where l.usuario.id = :idUsuario group by l.usuario.id, l.ano, l.mes, l.tipo")
+	List<ParcelaSaldoDto> obterParcelasSaldoPorUsuario(@Param("idUsuario") Long idUsuario);
+
+	@Query("select distinct l.usuario.id from Lancamento l")
+	List<Long> obterIdsUsuariosComLancamentos();
+
+	// um único update para o mês inteiro; só muda quem está num status de origem permitido
+	@Modifying(clearAutomatically = true)
+	@Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.usuario.id = :idUsuario "
+			+ "and l.ano = :ano and l.mes = :mes and l.status in :origens")
+	int atualizarStatusPorMes(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano,
+			@Param("mes") Integer mes, @Param("origens") Collection<StatusLancamento> origens,
+			@Param("status") StatusLancamento status);
+
+	@Modifying(clearAutomatically = true)
+	@Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.usuario.id = :idUsuario "
+			+ "and l.id in :ids and l.status in :origens")
+	int atualizarStatusPorIds(@Param("idUsuario") Long idUsuario, @Param("ids") Collection<Long> ids,
+			@Param("origens") Collection<StatusLancamento> origens, @Param("status") StatusLancamento status);
+
+	// um lançamento só: com o ano (chave de partição no PostgreSQL) o update vai direto à partição
+	// do ano, em vez de procurar o id no índice de cada partição
+	@Modifying(clearAutomatically = true)
+	@Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 where l.id = :id "
+			+ "and l.ano = :ano and l.status = :origem")
+	int atualizarStatus(@Param("id") Long id, @Param("ano") Integer ano, @Param("origem") StatusLancamento origem,
+			@Param("status") StatusLancamento status);
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+	@Query("select l.status from Lancamento l where l.id = :id and l.ano = :ano")
+	Optional<StatusLancamento> obterStatus(@Param("id") Long id, @Param("ano") Integer ano);
 
-	@Query("select sum (l.valor) from Lancamento l join l.usuario "
-			+ "u where u.id = :idUsuario and l.tipo = :tipo group by u ")
-	BigDecimal obterSaldoPorTipoLancamentoEUsuario(
-			@Param("idUsuario") Long idUsuario, 
-			@Param("tipo") TipoLancamento tipo);
+	List<Lancamento> findByUsuarioId(Long idUsuario);
 
 }
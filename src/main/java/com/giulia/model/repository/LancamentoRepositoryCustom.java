@@ -0,0 +1,27 @@
+package com.giulia.model.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.model.entity.Lancamento;
+
+// consultas montadas à mão (filtros opcionais), implementadas em LancamentoRepositoryImpl.
+// Retornam LancamentoDto: leitura sem entidades gerenciadas.
+public interface LancamentoRepositoryCustom {
+
+	// filtra pelo usuário (e ano/mês quando informados) usando o índice (id_usuario, ano, mes)
+	List<LancamentoDto> buscar(Lancamento filtro);
+
+	// página ordenada por id a partir do cursor (id do último lançamento já recebido)
+	List<LancamentoDto> buscarPagina(Lancamento filtro, Long cursor, int tamanho);
+
+	// entrega os lançamentos um a um, sem carregar o resultado inteiro em memória
+	void percorrer(Lancamento filtro, Consumer<LancamentoDto> consumidor);
+
+	// insere em lote (hibernate.jdbc.batch_size) e limpa o contexto de persistência ao final
+	void inserirEmLote(List<Lancamento> lancamentos);
+
+	// insere com o id informado (reprocessamento do histórico), em vez de gerar um novo
+	void restaurar(Lancamento lancamento);
+}
@@ -0,0 +1,112 @@
+package com.giulia.model.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.ReplicationMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.model.entity.Lancamento;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	private static final int TAMANHO_LOTE_LEITURA = 500;
+
+	// projeção direto no DTO: só as colunas da resposta, sem entidades gerenciadas nem select do usuário
+	private static final String SELECT_DTO = "select new com.giulia.dto.LancamentoDto(l.id, l.descricao, l.mes, "
+			+ "l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.versao) from Lancamento l";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<LancamentoDto> buscar(Lancamento filtro) {
+		return criarConsulta(filtro, null).getResultList();
+	}
+
+	@Override
+	public List<LancamentoDto> buscarPagina(Lancamento filtro, Long cursor, int tamanho) {
+		return criarConsulta(filtro, cursor).setMaxResults(tamanho).getResultList();
+	}
+
+	@Override
+	public void percorrer(Lancamento filtro, Consumer<LancamentoDto> consumidor) {
+		TypedQuery<LancamentoDto> consulta = criarConsulta(filtro, null)
+				.setHint(QueryHints.HINT_FETCH_SIZE, TAMANHO_LOTE_LEITURA); // cursor no banco, não o resultado todo
+
+		try (Stream<LancamentoDto> lancamentos = consulta.getResultStream()) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+
+	@Override
+	public void inserirEmLote(List<Lancamento> lancamentos) {
+		for (Lancamento lancamento : lancamentos) {
+			entityManager.persist(lancamento);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Override
+	public void restaurar(Lancamento lancamento) {
+		entityManager.unwrap(Session.class).replicate(lancamento, ReplicationMode.EXCEPTION);
+	}
+
+	private TypedQuery<LancamentoDto> criarConsulta(Lancamento filtro, Long cursor) {
+		StringBuilder jpql = new StringBuilder(SELECT_DTO).append(" where l.usuario.id = :idUsuario");
+		if (cursor != null) {
+			jpql.append(" and l.id > :cursor");
+		}
+		if (filtro.getAno() != null) {
+			jpql.append(" and l.ano = :ano");
+		}
+		if (filtro.getMes() != null) {
+			jpql.append(" and l.mes = :mes");
+		}
+		if (filtro.getTipo() != null) {
+			jpql.append(" and l.tipo = :tipo");
+		}
+		if (filtro.getStatus() != null) {
+			jpql.append(" and l.status = :status");
+		}
+		if (filtro.getDescricao() != null) {
+			// lower(descricao) like '%x%' é atendido pelo índice de trigramas no PostgreSQL
+			jpql.append(" and lower(l.descricao) like :descricao escape '\\'");
+		}
+		jpql.append(" order by l.id");
+
+		TypedQuery<LancamentoDto> consulta = entityManager.createQuery(jpql.toString(), LancamentoDto.class);
+		consulta.setParameter("idUsuario", filtro.getUsuario().getId());
+		if (cursor != null) {
+			consulta.setParameter("cursor", cursor);
+		}
+		if (filtro.getAno() != null) {
+			consulta.setParameter("ano", filtro.getAno());
+		}
+		if (filtro.getMes() != null) {
+			consulta.setParameter("mes", filtro.getMes());
+		}
+		if (filtro.getTipo() != null) {
+			consulta.setParameter("tipo", filtro.getTipo());
+		}
+		if (filtro.getStatus() != null) {
+			consulta.setParameter("status", filtro.getStatus());
+		}
+		if (filtro.getDescricao() != null) {
+			consulta.setParameter("descricao", "%" + escaparLike(filtro.getDescricao().toLowerCase()) + "%");
+		}
+		return consulta;
+	}
+
+	private static String escaparLike(String texto) {
+		return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
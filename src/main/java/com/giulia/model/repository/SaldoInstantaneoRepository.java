@@ -0,0 +1,20 @@
+package com.giulia.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.giulia.model.entity.SaldoInstantaneo;
+
+public interface SaldoInstantaneoRepository extends JpaRepository<SaldoInstantaneo, Long> {
+
+	// o instantâneo mais recente até a data, pelo índice (id_usuario, ate)
+	Optional<SaldoInstantaneo> findFirstByIdUsuarioAndAteLessThanEqualOrderByAteDesc(Long idUsuario,
+			LocalDateTime ate);
+
+	// corte do último instantâneo gerado, pelo índice de ate
+	@Query("select max(s.ate) from SaldoInstantaneo s")
+	Optional<LocalDateTime> obterUltimoCorte();
+}
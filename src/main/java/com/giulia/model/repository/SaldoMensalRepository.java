@@ -0,0 +1,46 @@
+package com.giulia.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.giulia.model.entity.SaldoMensal;
+import com.giulia.model.entity.SaldoMensalId;
+
+public interface SaldoMensalRepository extends JpaRepository<SaldoMensal, SaldoMensalId> {
+
+	@Modifying
+	@Query("update SaldoMensal s set s.receitas = s.receitas + :receitas, s.despesas = s.despesas + :despesas "
+			+ "where s.idUsuario = :idUsuario and s.ano = :ano and s.mes = :mes")
+	int somar(@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas);
+
+	// PostgreSQL: cria ou incrementa o mês num statement só (ver SaldoUsuarioRepository.acumular)
+	@Modifying
+	@Query(value = "insert into financas.saldo_mensal (id_usuario, ano, mes, receitas, despesas) "
+			+ "values (:idUsuario, :ano, :mes, :receitas, :despesas) on conflict (id_usuario, ano, mes) do update set "
+			+ "receitas = saldo_mensal.receitas + excluded.receitas, "
+			+ "despesas = saldo_mensal.despesas + excluded.despesas", nativeQuery = true)
+	int acumular(@Param("idUsuario") Long idUsuario,
+			@Param("ano") Integer ano,
+			@Param("mes") Integer mes,
+			@Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas);
+
+	List<SaldoMensal> findByIdUsuario(Long idUsuario);
+
+	List<SaldoMensal> findByIdUsuarioOrderByAnoAscMesAsc(Long idUsuario);
+
+	// relatório mensal no PostgreSQL: o saldo acumulado vem da função de janela, uma linha por mês
+	@Query(value = "select ano, mes, receitas, despesas, receitas - despesas as saldo, "
+			+ "sum(receitas - despesas) over (order by ano, mes) as acumulado "
+			+ "from financas.saldo_mensal where id_usuario = :idUsuario order by ano, mes", nativeQuery = true)
+	List<Object[]> obterRelatorio(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,57 @@
+package com.giulia.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.giulia.model.entity.SaldoUsuario;
+import com.giulia.service.cache.CacheSegundoNivel;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+
+	// resultado no cache de consultas: qualquer escrita em saldo_usuario (feita junto com a do
+	// lançamento) invalida a região
+	@QueryHints({ @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+			@QueryHint(name = "org.hibernate.cacheRegion", value = CacheSegundoNivel.SALDO) })
+	@Query("select s.receitas - s.despesas from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<BigDecimal> obterSaldo(@Param("idUsuario") Long idUsuario);
+
+	// incremento atômico no banco, sem ler a linha antes (evita perder atualizações concorrentes).
+	// retorna 0 quando o usuário ainda não tem saldo materializado.
+	@Modifying
+	@Query("update SaldoUsuario s set s.receitas = s.receitas + :receitas, s.despesas = s.despesas + :despesas "
+			+ "where s.idUsuario = :idUsuario")
+	int somar(@Param("idUsuario") Long idUsuario,
+			@Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas);
+
+	// PostgreSQL: cria ou incrementa num statement só. Dois primeiros lançamentos simultâneos do
+	// usuário não disputam o insert: o segundo espera o primeiro e cai no update.
+	@Modifying
+	@Query(value = "insert into financas.saldo_usuario (id_usuario, receitas, despesas) "
+			+ "values (:idUsuario, :receitas, :despesas) on conflict (id_usuario) do update set "
+			+ "receitas = saldo_usuario.receitas + excluded.receitas, "
+			+ "despesas = saldo_usuario.despesas + excluded.despesas", nativeQuery = true)
+	int acumular(@Param("idUsuario") Long idUsuario,
+			@Param("receitas") BigDecimal receitas,
+			@Param("despesas") BigDecimal despesas);
+
+	// select ... for update: toda escrita de lançamento passa por esta linha (somar/acumular), então
+	// quem a bloqueia recalcula o saldo sem que um incremento concorrente seja sobrescrito
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select s from SaldoUsuario s where s.idUsuario = :idUsuario")
+	Optional<SaldoUsuario> bloquear(@Param("idUsuario") Long idUsuario);
+
+	@Query("select s.idUsuario from SaldoUsuario s")
+	List<Long> obterIdsUsuarios();
+}
@@ -2,14 +2,19 @@ package com.giulia.model.repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.giulia.model.entity.Usuario;
+import com.giulia.service.cache.CacheUsuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 	// possui os métodos com os bancos de dados, mas não a regra de negócios.
 
 	// optional é porque retorna alguma coisa, ou não
+	@Cacheable(cacheNames = CacheUsuario.POR_EMAIL, key = "#p0", unless = "#result == null")
+	@Transactional(readOnly = true) // com réplica habilitada, a busca vai para ela
 	Optional<Usuario> findByEmail(String email); // query methods(feitos pelo spring)
 
 	boolean existsByEmail(String email);
@@ -0,0 +1,38 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.SaldoInstantaneo;
+import com.giulia.model.enums.StatusLancamento;
+
+public interface HistoricoLancamentoService {
+
+	// os registros entram na transação da escrita; os inserts saem em lote no flush
+	void registrarCriados(List<Lancamento> lancamentos);
+
+	void registrarAlterado(ParcelaSaldoDto anterior, Lancamento atual);
+
+	// mudança condicional: vale para os lançamentos que estavam numa das origens do status
+	void registrarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status);
+
+	void registrarStatusDoMes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status);
+
+	void registrarRemovido(Long idLancamento, ParcelaSaldoDto anterior);
+
+	// saldo como estava na data: último instantâneo até ela mais os eventos seguintes
+	BigDecimal obterSaldoEm(Long idUsuario, LocalDateTime data);
+
+	List<Long> obterUsuariosSemInstantaneo(LocalDateTime ate);
+
+	SaldoInstantaneo gerarInstantaneo(Long idUsuario, LocalDateTime ate);
+
+	List<Long> obterUsuariosComHistorico();
+
+	// refaz os lançamentos do usuário a partir do histórico; retorna quantos precisaram de correção
+	int reprocessar(Long idUsuario);
+}
@@ -0,0 +1,15 @@
+package com.giulia.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.giulia.dto.ResultadoImportacaoDto;
+
+public interface ImportacaoService {
+
+	// array JSON de LancamentoDto, lido em streaming
+	ResultadoImportacaoDto importarJson(InputStream entrada) throws IOException;
+
+	// CSV com cabeçalho (descricao, mes, ano, valor, tipo, usuario), separado por ',' ou ';'
+	ResultadoImportacaoDto importarCsv(InputStream entrada) throws IOException;
+}
@@ -1,9 +1,14 @@
 package com.giulia.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.dto.RelatorioMensalDto;
 import com.giulia.model.entity.Lancamento;
 import com.giulia.model.enums.StatusLancamento;
 
@@ -11,17 +16,34 @@ public interface LancamentoService {
 
 	Lancamento salvar(Lancamento lancamento);
 
+	// grava lançamentos já validados em uma única transação, com inserts em lote
+	void salvarEmLote(List<Lancamento> lancamentos);
+
 	Lancamento atualizar(Lancamento lancamento);
 
 	void deletar(Lancamento lancamento);
 
-	List<Lancamento> buscar(Lancamento lancamento);
+	List<LancamentoDto> buscar(Lancamento lancamento);
+
+	// paginação por cursor (id): cada página é uma busca pelo índice, sem offset
+	PaginaLancamentoDto buscarPagina(Lancamento filtro, Long cursor, int tamanho);
+
+	void percorrer(Lancamento filtro, Consumer<LancamentoDto> consumidor);
 	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+
+	int atualizarStatusDoMes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status);
+
+	int atualizarStatus(Long idUsuario, List<Long> ids, StatusLancamento status);
 	
 	void validar(Lancamento lancamento);
 	
 	Optional<Lancamento> obterPorId(Long id);
 	
 	BigDecimal obterSaldoPorUsuario(Long id);
+
+	// saldo como estava no instante informado, a partir do histórico de lançamentos
+	BigDecimal obterSaldoPorUsuarioEm(Long id, LocalDateTime data);
+
+	List<RelatorioMensalDto> obterRelatorio(Long idUsuario, Integer ano);
 }
@@ -0,0 +1,18 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.model.entity.Lancamento;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface LeituraReativaService {
+
+	// lê página por página (cursor) conforme o assinante pede, nunca mais de uma página adiante
+	Flux<LancamentoDto> buscar(Lancamento filtro);
+
+	// vazio quando o usuário não existe
+	Mono<BigDecimal> obterSaldo(Long idUsuario);
+}
@@ -0,0 +1,34 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.dto.RelatorioMensalDto;
+
+public interface SaldoService {
+
+	// soma a parcela de um lançamento ao saldo materializado do usuário
+	void somar(ParcelaSaldoDto parcela);
+
+	// retira a parcela (lançamento removido ou valor antigo de uma atualização)
+	void subtrair(ParcelaSaldoDto parcela);
+
+	BigDecimal obterSaldo(Long idUsuario);
+
+	// só lê o saldo materializado (vazio se o usuário ainda não tem), sem gravar nada
+	Optional<BigDecimal> consultarSaldo(Long idUsuario);
+
+	// recalcula o saldo a partir dos lançamentos
+	BigDecimal reconstruir(Long idUsuario);
+
+	// retorna true se o saldo gravado estava diferente dos lançamentos (e foi corrigido)
+	boolean verificar(Long idUsuario);
+
+	Set<Long> obterUsuariosComSaldo();
+
+	// receitas, despesas e saldo acumulado por mês (ano opcional), em ordem cronológica
+	List<RelatorioMensalDto> obterRelatorio(Long idUsuario, Integer ano);
+}
@@ -0,0 +1,15 @@
+package com.giulia.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface SenhaService {
+
+	String criptografar(String senha);
+
+	// a verificação roda num executor próprio e limitado, fora da thread da requisição
+	CompletableFuture<Boolean> conferir(String senha, String senhaGravada);
+
+	// senha ainda em texto puro (cadastros antigos) ou criptografada com outro custo
+	boolean precisaAtualizar(String senhaGravada);
+
+}
@@ -1,16 +1,23 @@
 package com.giulia.service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.giulia.model.entity.Usuario;
 
 public interface UsuarioService {
 
 	Usuario autenticar(String email, String senha);
+
+	// mesma regra do autenticar, mas a verificação da senha não ocupa a thread da requisição
+	CompletableFuture<Usuario> autenticarAssincrono(String email, String senha);
 	
 	//recebe como parâmetro um usuário não salvo
 	Usuario salvarUsuario(Usuario usuario);
 	
+	// grava a senha (em texto) criptografada de novo, ex.: legado em texto puro ou custo antigo
+	Usuario atualizarSenha(Usuario usuario, String senha);
+	
 	//Se o email já ta cadastrado, não pode cadastrar de novo.
 	void validarEmail(String email);
 	
@@ -0,0 +1,21 @@
+package com.giulia.service.cache;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Regiões do cache de segundo nível do Hibernate (tamanho e validade em financas.cache.regioes.*).
+// O cache é local ao processo: com mais de uma instância ele fica desligado (CacheSegundoNivelConfig).
+public final class CacheSegundoNivel {
+
+	public static final String SALDO = "saldo";
+
+	// regiões padrão do Hibernate: resultados de consultas sem região própria e o horário da
+	// última escrita em cada tabela, que invalida as consultas guardadas
+	public static final String CONSULTAS = "default-query-results-region";
+	public static final String ATUALIZACOES = "default-update-timestamps-region";
+
+	public static final List<String> REGIOES = Arrays.asList(SALDO, CONSULTAS);
+
+	private CacheSegundoNivel() {
+	}
+}
@@ -0,0 +1,63 @@
+package com.giulia.service.cache;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+// Cache de segundo nível do Hibernate via JCache, com o Caffeine em memória (sem servidor externo).
+// As regiões são criadas aqui com o tamanho e a validade de financas.cache.regioes.<regiao>.*;
+// cada contexto tem o próprio provider, então os caches não são compartilhados entre contextos.
+// Com várias instâncias (financas.cache.invalidacao.habilitada) o cache é desligado: uma escrita
+// em outro nó não descartaria a consulta guardada aqui.
+@Configuration
+public class CacheSegundoNivelConfig implements DisposableBean {
+
+	private final CachingProvider provider = new CaffeineCachingProvider();
+
+	@Bean
+	public HibernatePropertiesCustomizer cacheSegundoNivel(Environment ambiente) {
+		CacheManager cacheManager = provider.getCacheManager();
+		for (String regiao : CacheSegundoNivel.REGIOES) {
+			String prefixo = "financas.cache.regioes." + regiao;
+			cacheManager.createCache(regiao, configuracao(ambiente.getProperty(prefixo + ".maximo", Long.class, 10000l),
+					ambiente.getProperty(prefixo + ".validade-s", Long.class, 600l)));
+		}
+		// sem limite nem validade: um horário descartado faria consultas desatualizadas parecerem válidas
+		cacheManager.createCache(CacheSegundoNivel.ATUALIZACOES, new CaffeineConfiguration<Object, Object>());
+		boolean variasInstancias = ambiente.getProperty("financas.cache.invalidacao.habilitada", Boolean.class, false);
+		return propriedades -> {
+			propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+			if (variasInstancias) {
+				propriedades.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+				propriedades.put(AvailableSettings.USE_QUERY_CACHE, false);
+			}
+		};
+	}
+
+	private CaffeineConfiguration<Object, Object> configuracao(long maximo, long validadeSegundos) {
+		CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+		configuracao.setMaximumSize(OptionalLong.of(maximo));
+		configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(validadeSegundos)));
+		configuracao.setStoreByValue(false); // as entradas do Hibernate já são cópias desmontadas
+		configuracao.setStatisticsEnabled(true);
+		return configuracao;
+	}
+
+	@Override
+	public void destroy() {
+		provider.close();
+	}
+}
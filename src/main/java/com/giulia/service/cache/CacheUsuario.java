@@ -0,0 +1,11 @@
+package com.giulia.service.cache;
+
+// Nomes dos caches de usuário (configurados em spring.cache.* no application.properties)
+public final class CacheUsuario {
+
+	public static final String POR_ID = "usuarios";
+	public static final String POR_EMAIL = "usuariosPorEmail";
+
+	private CacheUsuario() {
+	}
+}
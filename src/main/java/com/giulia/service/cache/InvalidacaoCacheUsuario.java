@@ -0,0 +1,116 @@
+package com.giulia.service.cache;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Invalidação do cache de usuários entre nós via LISTEN/NOTIFY do PostgreSQL.
+// O NOTIFY é emitido na mesma transação que grava o usuário, então só é entregue após o commit.
+// Cada nó mantém uma conexão escutando o canal e remove do seu cache local o usuário avisado.
+@Component
+@ConditionalOnProperty(name = "financas.cache.invalidacao.habilitada", havingValue = "true")
+@Slf4j
+public class InvalidacaoCacheUsuario implements SmartLifecycle {
+
+	static final String CANAL = "financas_usuario";
+	private static final int ESPERA_MS = 5000;
+
+	private final DataSource dataSource;
+	private final JdbcTemplate jdbcTemplate;
+	private final CacheManager cacheManager;
+
+	private volatile boolean executando;
+	private Thread escuta;
+
+	public InvalidacaoCacheUsuario(DataSource dataSource, CacheManager cacheManager) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.cacheManager = cacheManager;
+	}
+
+	@EventListener
+	public void publicar(UsuarioAlteradoEvent evento) {
+		jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, CANAL, evento.getId() + ";" + evento.getEmail());
+	}
+
+	@Override
+	public void start() {
+		executando = true;
+		escuta = new Thread(this::escutar, "invalidacao-cache-usuario");
+		escuta.setDaemon(true);
+		escuta.start();
+	}
+
+	@Override
+	public void stop() {
+		executando = false;
+		escuta.interrupt();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return executando;
+	}
+
+	private void escutar() {
+		while (executando) {
+			try (Connection conexao = dataSource.getConnection(); Statement statement = conexao.createStatement()) {
+				statement.execute("LISTEN " + CANAL);
+				// avisos perdidos enquanto estava desconectado: começa do zero
+				limpar(CacheUsuario.POR_ID);
+				limpar(CacheUsuario.POR_EMAIL);
+				PGConnection pg = conexao.unwrap(PGConnection.class);
+				while (executando) {
+					PGNotification[] avisos = pg.getNotifications(ESPERA_MS);
+					if (avisos != null) {
+						for (PGNotification aviso : avisos) {
+							invalidar(aviso.getParameter());
+						}
+					}
+				}
+			} catch (Exception e) {
+				if (!executando) {
+					return;
+				}
+				log.warn("Falha ao escutar invalidações do cache de usuários, reconectando", e);
+				try {
+					Thread.sleep(ESPERA_MS);
+				} catch (InterruptedException interrompido) {
+					return;
+				}
+			}
+		}
+	}
+
+	void invalidar(String aviso) {
+		int separador = aviso.indexOf(';');
+		Cache porId = cacheManager.getCache(CacheUsuario.POR_ID);
+		Cache porEmail = cacheManager.getCache(CacheUsuario.POR_EMAIL);
+		if (porId != null) {
+			porId.evict(Long.valueOf(aviso.substring(0, separador)));
+		}
+		if (porEmail != null) {
+			porEmail.evict(aviso.substring(separador + 1));
+		}
+	}
+
+	private void limpar(String nome) {
+		Cache cache = cacheManager.getCache(nome);
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+}
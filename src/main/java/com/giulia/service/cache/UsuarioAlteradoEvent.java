@@ -0,0 +1,13 @@
+package com.giulia.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Publicado quando um usuário é gravado; o cache local já é invalidado pelo próprio serviço,
+// este evento serve para avisar os outros nós (ver InvalidacaoCacheUsuario).
+@Getter
+@AllArgsConstructor
+public class UsuarioAlteradoEvent {
+	private final Long id;
+	private final String email;
+}
@@ -0,0 +1,14 @@
+package com.giulia.service.idempotencia;
+
+import java.util.function.Supplier;
+
+import com.giulia.dto.LancamentoDto;
+
+// Executa o salvar de uma chave (cabeçalho Idempotency-Key) uma única vez: repetições, mesmo
+// concorrentes, recebem a resposta da primeira sem validar nem inserir de novo.
+public interface RegistroIdempotencia {
+
+	String CABECALHO = "Idempotency-Key";
+
+	LancamentoDto executar(String chave, Supplier<LancamentoDto> operacao);
+}
@@ -0,0 +1,121 @@
+package com.giulia.service.idempotencia;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.exception.RequisicaoEmAndamentoException;
+import com.giulia.model.entity.ChaveIdempotencia;
+import com.giulia.model.repository.ChaveIdempotenciaRepository;
+import com.giulia.service.LancamentoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Vários nós: a chave é reservada na tabela financas.idempotencia antes do insert e concluída
+// com o id do lançamento; as repetições (de qualquer nó) devolvem esse lançamento.
+// A reserva vale espera-ms: uma ainda sem lançamento e mais antiga que isso foi abandonada (o nó
+// caiu entre a reserva e a conclusão) e a próxima repetição assume a chave. Quem detém a reserva
+// é identificado por um token (coluna dono), não pela data.
+@Component
+@ConditionalOnProperty(name = "financas.idempotencia.armazenamento", havingValue = "banco")
+@Slf4j
+public class RegistroIdempotenciaBanco implements RegistroIdempotencia {
+
+	private static final long PAUSA_MS = 50;
+
+	private final ChaveIdempotenciaRepository repository;
+	private final LancamentoService lancamentoService;
+	private final long validadeMin;
+	private final long esperaMs;
+
+	public RegistroIdempotenciaBanco(ChaveIdempotenciaRepository repository, LancamentoService lancamentoService,
+			@Value("${financas.idempotencia.validade-min:1440}") long validadeMin,
+			@Value("${financas.idempotencia.espera-ms:10000}") long esperaMs) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.validadeMin = validadeMin;
+		this.esperaMs = esperaMs;
+	}
+
+	@Override
+	public LancamentoDto executar(String chave, Supplier<LancamentoDto> operacao) {
+		long limite = System.currentTimeMillis() + esperaMs;
+		String dono = UUID.randomUUID().toString();
+		boolean reservada = reservar(chave, dono);
+		while (!reservada) {
+			Optional<ChaveIdempotencia> registro = repository.findById(chave);
+			if (registro.isPresent() && registro.get().getIdLancamento() != null) {
+				return resposta(registro.get().getIdLancamento());
+			}
+			// em andamento e vencida: assume; liberada por falha: a próxima volta reserva
+			reservada = registro.isPresent() ? assumir(chave, registro.get().getDataCriacao(), dono)
+					: reservar(chave, dono);
+			if (!reservada) {
+				if (System.currentTimeMillis() > limite) {
+					throw new RequisicaoEmAndamentoException("Requisição com a mesma chave ainda em andamento");
+				}
+				pausar();
+			}
+		}
+		try {
+			LancamentoDto salvo = operacao.get();
+			if (repository.concluir(chave, dono, salvo.getId()) == 0) {
+				log.warn("Reserva da chave de idempotência {} assumida por outra requisição antes da conclusão", chave);
+			}
+			return salvo;
+		} catch (RuntimeException e) {
+			repository.liberar(chave, dono);
+			throw e;
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${financas.idempotencia.limpeza-ms:600000}")
+	public void limpar() {
+		int removidas = repository.removerAnterioresA(LocalDateTime.now().minusMinutes(validadeMin));
+		log.debug("{} chaves de idempotência expiradas removidas", removidas);
+	}
+
+	// false quando outra requisição reservou antes
+	private boolean reservar(String chave, String dono) {
+		try {
+			return repository.reservar(chave, dono, LocalDateTime.now()) == 1;
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+
+	// false enquanto a reserva está no prazo ou quando outro nó a assumiu primeiro
+	private boolean assumir(String chave, LocalDateTime criada, String dono) {
+		LocalDateTime agora = LocalDateTime.now();
+		LocalDateTime limite = agora.minus(esperaMs, ChronoUnit.MILLIS);
+		if (criada.isAfter(limite)) {
+			return false;
+		}
+		log.warn("Reserva da chave de idempotência {} abandonada desde {}, assumindo", chave, criada);
+		return repository.assumir(chave, limite, dono, agora) == 1;
+	}
+
+	private LancamentoDto resposta(Long idLancamento) {
+		return lancamentoService.obterPorId(idLancamento).map(LancamentoDto::de)
+				.orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de dados"));
+	}
+
+	private void pausar() {
+		try {
+			Thread.sleep(PAUSA_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RequisicaoEmAndamentoException("Requisição com a mesma chave ainda em andamento");
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.giulia.service.idempotencia;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.exception.RequisicaoEmAndamentoException;
+
+// Padrão (um nó só): as respostas ficam num cache local limitado em tamanho e validade.
+// A primeira requisição registra um futuro; as repetições esperam por ele.
+@Component
+@ConditionalOnProperty(name = "financas.idempotencia.armazenamento", havingValue = "memoria", matchIfMissing = true)
+public class RegistroIdempotenciaMemoria implements RegistroIdempotencia {
+
+	private final Cache<String, CompletableFuture<LancamentoDto>> respostas;
+	private final long esperaMs;
+
+	public RegistroIdempotenciaMemoria(@Value("${financas.idempotencia.maximo:10000}") long maximo,
+			@Value("${financas.idempotencia.validade-min:1440}") long validadeMin,
+			@Value("${financas.idempotencia.espera-ms:10000}") long esperaMs) {
+		this.respostas = Caffeine.newBuilder().maximumSize(maximo).expireAfterWrite(validadeMin, TimeUnit.MINUTES)
+				.build();
+		this.esperaMs = esperaMs;
+	}
+
+	@Override
+	public LancamentoDto executar(String chave, Supplier<LancamentoDto> operacao) {
+		CompletableFuture<LancamentoDto> resposta = new CompletableFuture<>();
+		CompletableFuture<LancamentoDto> anterior = respostas.asMap().putIfAbsent(chave, resposta);
+		if (anterior != null) {
+			return aguardar(anterior);
+		}
+		try {
+			LancamentoDto salvo = operacao.get();
+			resposta.complete(salvo);
+			return salvo;
+		} catch (RuntimeException e) {
+			// falhou: a chave fica livre para uma nova tentativa, quem já esperava recebe o mesmo erro
+			respostas.asMap().remove(chave, resposta);
+			resposta.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	private LancamentoDto aguardar(CompletableFuture<LancamentoDto> resposta) {
+		try {
+			return resposta.get(esperaMs, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			throw (RuntimeException) e.getCause();
+		} catch (TimeoutException e) {
+			throw new RequisicaoEmAndamentoException("Requisição com a mesma chave ainda em andamento");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RequisicaoEmAndamentoException("Requisição com a mesma chave ainda em andamento");
+		}
+	}
+}
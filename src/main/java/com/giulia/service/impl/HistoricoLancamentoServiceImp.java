@@ -0,0 +1,264 @@
+package com.giulia.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.dto.TotaisSaldoDto;
+import com.giulia.model.entity.EventoLancamento;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.SaldoInstantaneo;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoEventoLancamento;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.EventoLancamentoRepository;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.model.repository.SaldoInstantaneoRepository;
+import com.giulia.service.HistoricoLancamentoService;
+import com.giulia.service.SaldoService;
+
+@Service
+public class HistoricoLancamentoServiceImp implements HistoricoLancamentoService {
+
+	// antes de qualquer evento: sem instantâneo, a soma começa daqui
+	private static final LocalDateTime INICIO = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+	private EventoLancamentoRepository eventoRepository;
+	private SaldoInstantaneoRepository instantaneoRepository;
+	private LancamentoRepository lancamentoRepository;
+	private SaldoService saldoService;
+	private RoteamentoLeitura roteamento;
+
+	public HistoricoLancamentoServiceImp(EventoLancamentoRepository eventoRepository,
+			SaldoInstantaneoRepository instantaneoRepository, LancamentoRepository lancamentoRepository,
+			SaldoService saldoService, RoteamentoLeitura roteamento) {
+		this.eventoRepository = eventoRepository;
+		this.instantaneoRepository = instantaneoRepository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.saldoService = saldoService;
+		this.roteamento = roteamento;
+	}
+
+	@Override
+	@Transactional
+	public void registrarCriados(List<Lancamento> lancamentos) {
+		LocalDateTime agora = LocalDateTime.now();
+		List<EventoLancamento> eventos = new ArrayList<>(lancamentos.size());
+		for (Lancamento lancamento : lancamentos) {
+			eventos.add(criado(lancamento, agora));
+		}
+		eventoRepository.saveAll(eventos);
+	}
+
+	@Override
+	@Transactional
+	public void registrarAlterado(ParcelaSaldoDto anterior, Lancamento atual) {
+		LocalDateTime agora = LocalDateTime.now();
+		if (anterior != null && anterior.getUsuario() != null
+				&& !anterior.getUsuario().equals(atual.getUsuario().getId())) {
+			// trocou de usuário: sai inteiro do histórico do antigo e entra inteiro no do novo
+			eventoRepository.saveAll(Arrays.asList(removido(atual.getId(), anterior, agora), criado(atual, agora)));
+			return;
+		}
+		ParcelaSaldoDto parcela = ParcelaSaldoDto.de(atual);
+		eventoRepository.save(completo(TipoEventoLancamento.ALTERADO, atual, agora)
+				.receitas(efeito(parcela, TipoLancamento.RECEITA).subtract(efeito(anterior, TipoLancamento.RECEITA)))
+				.despesas(efeito(parcela, TipoLancamento.DESPESA).subtract(efeito(anterior, TipoLancamento.DESPESA)))
+				.build());
+	}
+
+	@Override
+	@Transactional
+	public void registrarStatus(Long idUsuario, Collection<Long> ids, StatusLancamento status) {
+		LocalDateTime agora = LocalDateTime.now();
+		List<EventoLancamento> eventos = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			eventos.add(status(idUsuario, status, agora).idLancamento(id).build());
+		}
+		eventoRepository.saveAll(eventos);
+	}
+
+	@Override
+	@Transactional
+	public void registrarStatusDoMes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status) {
+		// um evento para o mês inteiro, como o update: o reprocessamento aplica a mesma regra
+		eventoRepository.save(status(idUsuario, status, LocalDateTime.now()).ano(ano).mes(mes).build());
+	}
+
+	@Override
+	@Transactional
+	public void registrarRemovido(Long idLancamento, ParcelaSaldoDto anterior) {
+		eventoRepository.save(removido(idLancamento, anterior, LocalDateTime.now()));
+	}
+
+	private EventoLancamento criado(Lancamento lancamento, LocalDateTime dataHora) {
+		ParcelaSaldoDto parcela = ParcelaSaldoDto.de(lancamento);
+		return completo(TipoEventoLancamento.CRIADO, lancamento, dataHora)
+				.receitas(efeito(parcela, TipoLancamento.RECEITA))
+				.despesas(efeito(parcela, TipoLancamento.DESPESA)).build();
+	}
+
+	private EventoLancamento removido(Long idLancamento, ParcelaSaldoDto anterior, LocalDateTime dataHora) {
+		return EventoLancamento.builder().evento(TipoEventoLancamento.REMOVIDO).idLancamento(idLancamento)
+				.idUsuario(anterior.getUsuario()).dataHora(dataHora)
+				.receitas(efeito(anterior, TipoLancamento.RECEITA).negate())
+				.despesas(efeito(anterior, TipoLancamento.DESPESA).negate()).build();
+	}
+
+	private EventoLancamento.EventoLancamentoBuilder completo(TipoEventoLancamento evento, Lancamento lancamento,
+			LocalDateTime dataHora) {
+		return EventoLancamento.builder().evento(evento).idLancamento(lancamento.getId())
+				.idUsuario(lancamento.getUsuario().getId()).dataHora(dataHora).descricao(lancamento.getDescricao())
+				.mes(lancamento.getMes()).ano(lancamento.getAno()).valor(lancamento.getValor())
+				.tipo(lancamento.getTipo()).status(lancamento.getStatus())
+				.dataCadastro(lancamento.getDataCadastro());
+	}
+
+	private EventoLancamento.EventoLancamentoBuilder status(Long idUsuario, StatusLancamento status,
+			LocalDateTime dataHora) {
+		return EventoLancamento.builder().evento(TipoEventoLancamento.STATUS_ALTERADO).idUsuario(idUsuario)
+				.dataHora(dataHora).status(status).receitas(BigDecimal.ZERO).despesas(BigDecimal.ZERO);
+	}
+
+	private BigDecimal efeito(ParcelaSaldoDto parcela, TipoLancamento tipo) {
+		return parcela != null && parcela.isCompleta() && parcela.getTipo() == tipo ? parcela.getValor()
+				: BigDecimal.ZERO;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal obterSaldoEm(Long idUsuario, LocalDateTime data) {
+		return roteamento.consultar(RoteamentoLeitura.usuario(idUsuario), () -> {
+			Optional<SaldoInstantaneo> instantaneo = instantaneoRepository
+					.findFirstByIdUsuarioAndAteLessThanEqualOrderByAteDesc(idUsuario, data);
+			TotaisSaldoDto cauda = eventoRepository.somar(idUsuario,
+					instantaneo.map(SaldoInstantaneo::getAte).orElse(INICIO), data);
+			BigDecimal base = instantaneo.map(SaldoInstantaneo::getSaldo).orElse(BigDecimal.ZERO);
+			return base.add(cauda.getReceitas()).subtract(cauda.getDespesas());
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> obterUsuariosSemInstantaneo(LocalDateTime ate) {
+		// cada execução do job cobre todos os eventos até o seu corte: basta olhar os seguintes.
+		// Um usuário que ficou de fora de uma execução interrompida continua correto (a cauda
+		// começa no instantâneo anterior) e ganha o instantâneo no próximo evento.
+		LocalDateTime desde = instantaneoRepository.obterUltimoCorte().orElse(INICIO);
+		return eventoRepository.obterUsuariosComEventosEntre(desde, ate);
+	}
+
+	@Override
+	@Transactional
+	public SaldoInstantaneo gerarInstantaneo(Long idUsuario, LocalDateTime ate) {
+		Optional<SaldoInstantaneo> anterior = instantaneoRepository
+				.findFirstByIdUsuarioAndAteLessThanEqualOrderByAteDesc(idUsuario, ate);
+		TotaisSaldoDto cauda = eventoRepository.somar(idUsuario,
+				anterior.map(SaldoInstantaneo::getAte).orElse(INICIO), ate);
+		return instantaneoRepository.save(SaldoInstantaneo.builder().idUsuario(idUsuario).ate(ate)
+				.receitas(anterior.map(SaldoInstantaneo::getReceitas).orElse(BigDecimal.ZERO).add(cauda.getReceitas()))
+				.despesas(anterior.map(SaldoInstantaneo::getDespesas).orElse(BigDecimal.ZERO).add(cauda.getDespesas()))
+				.build());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> obterUsuariosComHistorico() {
+		return eventoRepository.obterUsuariosComEventos();
+	}
+
+	@Override
+	@Transactional
+	public int reprocessar(Long idUsuario) {
+		Map<Long, Lancamento> esperados = new LinkedHashMap<>();
+		try (Stream<EventoLancamento> eventos = eventoRepository.findByIdUsuarioOrderByDataHoraAscIdAsc(idUsuario)) {
+			eventos.forEach(evento -> aplicar(esperados, evento));
+		}
+
+		int corrigidos = 0;
+		for (Lancamento atual : lancamentoRepository.findByUsuarioId(idUsuario)) {
+			Lancamento esperado = esperados.remove(atual.getId());
+			if (esperado == null) {
+				lancamentoRepository.delete(atual);
+				corrigidos++;
+			} else if (!mesmoEstado(atual, esperado)) {
+				copiar(esperado, atual); // gravado no flush, com a versão incrementada
+				corrigidos++;
+			}
+		}
+		for (Lancamento faltante : esperados.values()) {
+			lancamentoRepository.restaurar(faltante);
+			corrigidos++;
+		}
+		if (corrigidos > 0) {
+			saldoService.reconstruir(idUsuario);
+		}
+		return corrigidos;
+	}
+
+	private void aplicar(Map<Long, Lancamento> lancamentos, EventoLancamento evento) {
+		switch (evento.getEvento()) {
+		case CRIADO:
+		case ALTERADO:
+			lancamentos.put(evento.getIdLancamento(), Lancamento.builder().id(evento.getIdLancamento())
+					.usuario(Usuario.builder().id(evento.getIdUsuario()).build()).descricao(evento.getDescricao())
+					.mes(evento.getMes()).ano(evento.getAno()).valor(evento.getValor()).tipo(evento.getTipo())
+					.status(evento.getStatus()).dataCadastro(evento.getDataCadastro()).versao(0l).build());
+			break;
+		case STATUS_ALTERADO:
+			// com id, só aquele lançamento; sem id, os do ano/mês do evento
+			if (evento.getIdLancamento() != null) {
+				mudarStatus(lancamentos.get(evento.getIdLancamento()), evento.getStatus());
+			} else {
+				for (Lancamento lancamento : lancamentos.values()) {
+					if (lancamento.getAno().equals(evento.getAno()) && lancamento.getMes().equals(evento.getMes())) {
+						mudarStatus(lancamento, evento.getStatus());
+					}
+				}
+			}
+			break;
+		case REMOVIDO:
+			lancamentos.remove(evento.getIdLancamento());
+			break;
+		}
+	}
+
+	// mesma condição do update: só muda quem estava numa das origens do status
+	private void mudarStatus(Lancamento lancamento, StatusLancamento status) {
+		if (lancamento != null && StatusLancamento.origensPara(status).contains(lancamento.getStatus())) {
+			lancamento.setStatus(status);
+		}
+	}
+
+	private boolean mesmoEstado(Lancamento atual, Lancamento esperado) {
+		return Objects.equals(atual.getDescricao(), esperado.getDescricao())
+				&& Objects.equals(atual.getMes(), esperado.getMes()) && Objects.equals(atual.getAno(), esperado.getAno())
+				&& atual.getValor().compareTo(esperado.getValor()) == 0 && atual.getTipo() == esperado.getTipo()
+				&& atual.getStatus() == esperado.getStatus()
+				&& Objects.equals(atual.getDataCadastro(), esperado.getDataCadastro());
+	}
+
+	private void copiar(Lancamento origem, Lancamento destino) {
+		destino.setDescricao(origem.getDescricao());
+		destino.setMes(origem.getMes());
+		destino.setAno(origem.getAno());
+		destino.setValor(origem.getValor());
+		destino.setTipo(origem.getTipo());
+		destino.setStatus(origem.getStatus());
+		destino.setDataCadastro(origem.getDataCadastro());
+	}
+}
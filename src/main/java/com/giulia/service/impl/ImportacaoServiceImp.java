@@ -0,0 +1,244 @@
+package com.giulia.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.dto.ErroImportacaoDto;
+import com.giulia.dto.ErroValidacaoDto;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.ResultadoImportacaoDto;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.exception.ValidacaoLancamentoException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.ImportacaoService;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.UsuarioService;
+
+@Service
+public class ImportacaoServiceImp implements ImportacaoService {
+
+	private static final String[] COLUNAS_CSV = { "descricao", "mes", "ano", "valor", "tipo", "usuario" };
+
+	private LancamentoService lancamentoService;
+	private UsuarioService usuarioService;
+	private ObjectMapper objectMapper;
+	private int tamanhoLote;
+
+	public ImportacaoServiceImp(LancamentoService lancamentoService, UsuarioService usuarioService,
+			ObjectMapper objectMapper, @Value("${financas.importacao.tamanho-lote:500}") int tamanhoLote) {
+		this.lancamentoService = lancamentoService;
+		this.usuarioService = usuarioService;
+		this.objectMapper = objectMapper;
+		this.tamanhoLote = tamanhoLote;
+	}
+
+	@Override
+	public ResultadoImportacaoDto importarJson(InputStream entrada) throws IOException {
+		Importacao importacao = new Importacao();
+		try (JsonParser parser = objectMapper.getFactory().createParser(entrada)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new RegraNegocioException("Informe um array JSON de lançamentos");
+			}
+			long linha = 0;
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				linha++;
+				LancamentoDto dto;
+				try {
+					dto = objectMapper.readValue(parser, LancamentoDto.class);
+				} catch (JsonProcessingException e) {
+					// depois de um erro de leitura não dá para continuar o array com segurança
+					importacao.rejeitar(linha, "JSON inválido: " + e.getOriginalMessage());
+					break;
+				}
+				importacao.adicionar(linha, dto);
+			}
+		}
+		return importacao.concluir();
+	}
+
+	@Override
+	public ResultadoImportacaoDto importarCsv(InputStream entrada) throws IOException {
+		Importacao importacao = new Importacao();
+		BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+		String cabecalho = leitor.readLine();
+		if (cabecalho == null) {
+			return importacao.concluir();
+		}
+		char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+		Map<String, Integer> colunas = new HashMap<>();
+		List<String> nomes = dividir(cabecalho, separador);
+		for (int i = 0; i < nomes.size(); i++) {
+			colunas.put(nomes.get(i).toLowerCase(), i);
+		}
+		for (String coluna : COLUNAS_CSV) {
+			if (!colunas.containsKey(coluna)) {
+				throw new RegraNegocioException("Coluna obrigatória ausente no CSV: " + coluna);
+			}
+		}
+
+		String texto;
+		long linha = 0;
+		while ((texto = leitor.readLine()) != null) {
+			if (texto.trim().isEmpty()) {
+				continue;
+			}
+			linha++;
+			List<String> campos = dividir(texto, separador);
+			LancamentoDto dto;
+			try {
+				dto = LancamentoDto.builder()
+						.descricao(campo(campos, colunas, "descricao"))
+						.mes(inteiro(campo(campos, colunas, "mes")))
+						.ano(inteiro(campo(campos, colunas, "ano")))
+						.valor(decimal(campo(campos, colunas, "valor")))
+						.tipo(campo(campos, colunas, "tipo"))
+						.usuario(campo(campos, colunas, "usuario") == null ? null
+								: Long.valueOf(campo(campos, colunas, "usuario")))
+						.build();
+			} catch (NumberFormatException e) {
+				importacao.rejeitar(linha, "Valor numérico inválido");
+				continue;
+			}
+			importacao.adicionar(linha, dto);
+		}
+		return importacao.concluir();
+	}
+
+	// Acumula os lançamentos válidos e grava a cada tamanhoLote, cada lote na sua transação.
+	private class Importacao {
+
+		private final ResultadoImportacaoDto resultado = new ResultadoImportacaoDto();
+		private final Map<Long, Optional<Usuario>> usuarios = new HashMap<>(); // uma consulta por usuário do arquivo
+		private final List<Lancamento> lote = new ArrayList<>();
+		private final List<Long> linhasDoLote = new ArrayList<>();
+
+		void adicionar(long linha, LancamentoDto dto) {
+			try {
+				Lancamento lancamento = converter(dto);
+				lancamentoService.validar(lancamento);
+				lote.add(lancamento);
+				linhasDoLote.add(linha);
+			} catch (ValidacaoLancamentoException e) {
+				resultado.adicionarErro(
+						new ErroImportacaoDto(linha, e.getMessage(), ErroValidacaoDto.de(e.getErros())));
+				return;
+			} catch (RegraNegocioException e) {
+				rejeitar(linha, e.getMessage());
+				return;
+			}
+			if (lote.size() >= tamanhoLote) {
+				gravar();
+			}
+		}
+
+		void rejeitar(long linha, String mensagem) {
+			resultado.adicionarErro(linha, mensagem);
+		}
+
+		ResultadoImportacaoDto concluir() {
+			gravar();
+			return resultado;
+		}
+
+		private void gravar() {
+			if (lote.isEmpty()) {
+				return;
+			}
+			try {
+				lancamentoService.salvarEmLote(lote);
+				resultado.setImportados(resultado.getImportados() + lote.size());
+			} catch (RuntimeException e) {
+				for (Long linha : linhasDoLote) {
+					rejeitar(linha, "Falha ao gravar o lote: " + e.getMessage());
+				}
+			} finally {
+				lote.clear();
+				linhasDoLote.clear();
+			}
+		}
+
+		private Lancamento converter(LancamentoDto dto) {
+			Lancamento lancamento = new Lancamento();
+			lancamento.setDescricao(dto.getDescricao());
+			lancamento.setAno(dto.getAno());
+			lancamento.setMes(dto.getMes());
+			lancamento.setValor(dto.getValor());
+
+			if (dto.getUsuario() != null) {
+				Usuario usuario = usuarios.computeIfAbsent(dto.getUsuario(), usuarioService::obterPorId)
+						.orElseThrow(() -> new RegraNegocioException("Usuário não existe para id informado"));
+				lancamento.setUsuario(usuario);
+			}
+			// tabela de busca em vez de valueOf: tipo desconhecido fica null e a validação o rejeita
+			// com TIPO_INVALIDO, como qualquer outro campo
+			lancamento.setTipo(TipoLancamento.porNome(dto.getTipo()));
+			return lancamento;
+		}
+	}
+
+	// separa os campos respeitando aspas ("Mercado; feira" fica em um campo só)
+	static List<String> dividir(String linha, char separador) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder atual = new StringBuilder();
+		boolean entreAspas = false;
+		for (int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if (c == '"') {
+				if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+					atual.append('"');
+					i++;
+				} else {
+					entreAspas = !entreAspas;
+				}
+			} else if (c == separador && !entreAspas) {
+				campos.add(atual.toString().trim());
+				atual.setLength(0);
+			} else {
+				atual.append(c);
+			}
+		}
+		campos.add(atual.toString().trim());
+		return campos;
+	}
+
+	private static String campo(List<String> campos, Map<String, Integer> colunas, String nome) {
+		int indice = colunas.get(nome);
+		if (indice >= campos.size() || campos.get(indice).isEmpty()) {
+			return null;
+		}
+		return campos.get(indice);
+	}
+
+	private static Integer inteiro(String texto) {
+		return texto == null ? null : Integer.valueOf(texto);
+	}
+
+	// aceita 1234.56 e o formato brasileiro 1.234,56
+	private static BigDecimal decimal(String texto) {
+		if (texto == null) {
+			return null;
+		}
+		if (texto.indexOf(',') >= 0) {
+			texto = texto.replace(".", "").replace(',', '.');
+		}
+		return new BigDecimal(texto);
+	}
+}
@@ -1,30 +1,57 @@
 package com.giulia.service.impl;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.dto.RelatorioMensalDto;
 import com.giulia.exception.RegraNegocioException;
+import com.giulia.exception.ValidacaoLancamentoException;
 import com.giulia.model.entity.Lancamento;
 import com.giulia.model.enums.StatusLancamento;
-import com.giulia.model.enums.TipoLancamento;
 import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.service.HistoricoLancamentoService;
 import com.giulia.service.LancamentoService;
+import com.giulia.service.SaldoService;
+import com.giulia.service.validacao.ValidadorLancamento;
 
 @Service
 public class LancamentoServiceImp implements LancamentoService {
 
 	private LancamentoRepository repository;
+	private SaldoService saldoService;
+	private HistoricoLancamentoService historico;
+	private RoteamentoLeitura roteamento;
 
-	public LancamentoServiceImp(LancamentoRepository repository) {
+	// quantas vezes a mudança de status é tentada quando outra operação chega antes
+	@Value("${financas.status.tentativas:3}")
+	private int tentativasStatus = 3;
+
+	public LancamentoServiceImp(LancamentoRepository repository, SaldoService saldoService,
+			HistoricoLancamentoService historico, RoteamentoLeitura roteamento) {
 		this.repository = repository;
+		this.saldoService = saldoService;
+		this.historico = historico;
+		this.roteamento = roteamento;
 	}
 
 	@Override
@@ -33,7 +60,33 @@ public class LancamentoServiceImp implements LancamentoService {
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		Lancamento salvo = repository.save(lancamento);
+		ParcelaSaldoDto parcela = ParcelaSaldoDto.de(salvo);
+		saldoService.somar(parcela); // mesma transação: saldo e lançamento sempre juntos
+		historico.registrarCriados(Collections.singletonList(salvo));
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(parcela.getUsuario()),
+				RoteamentoLeitura.lancamento(salvo.getId()));
+		return salvo;
+	}
+
+	@Override
+	@Transactional
+	public void salvarEmLote(List<Lancamento> lancamentos) {
+		// um incremento de saldo por usuário/ano/mês/tipo do lote, e não um por lançamento
+		Map<List<Object>, ParcelaSaldoDto> parcelas = new LinkedHashMap<>();
+		for (Lancamento lancamento : lancamentos) {
+			lancamento.setStatus(StatusLancamento.PENDENTE);
+			ParcelaSaldoDto parcela = ParcelaSaldoDto.de(lancamento);
+			parcelas.merge(Arrays.asList(parcela.getUsuario(), parcela.getAno(), parcela.getMes(), parcela.getTipo()),
+					parcela, (soma, outra) -> {
+						soma.setValor(soma.getValor().add(outra.getValor()));
+						return soma;
+					});
+		}
+		repository.inserirEmLote(lancamentos);
+		parcelas.values().forEach(saldoService::somar);
+		historico.registrarCriados(lancamentos);
+		parcelas.values().forEach(p -> roteamento.registrarEscrita(RoteamentoLeitura.usuario(p.getUsuario())));
 	}
 
 	@Override
@@ -41,83 +94,176 @@ public class LancamentoServiceImp implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId()); // garante que o lancamento tem id, ou lanca um nullpointer
 		validar(lancamento);
-		return repository.save(lancamento);
+		Optional<ParcelaSaldoDto> anterior = repository.obterParcelaSaldo(lancamento.getId());
+		Lancamento salvo = repository.save(lancamento);
+
+		ParcelaSaldoDto atual = ParcelaSaldoDto.de(salvo);
+		if (!atual.mesmoEfeito(anterior.orElse(null))) { // ex.: mudança só de status não mexe no saldo
+			anterior.ifPresent(saldoService::subtrair);
+			saldoService.somar(atual);
+		}
+		historico.registrarAlterado(anterior.orElse(null), salvo);
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(atual.getUsuario()),
+				RoteamentoLeitura.lancamento(salvo.getId()));
+		return salvo;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		Optional<ParcelaSaldoDto> anterior = repository.obterParcelaSaldo(lancamento.getId());
 		repository.delete(lancamento);
+		anterior.ifPresent(saldoService::subtrair);
+		anterior.ifPresent(p -> historico.registrarRemovido(lancamento.getId(), p));
+		anterior.ifPresent(p -> roteamento.registrarEscrita(RoteamentoLeitura.usuario(p.getUsuario())));
+		roteamento.registrarEscrita(RoteamentoLeitura.lancamento(lancamento.getId()));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoDto> buscar(Lancamento lancamentoFiltro) {
+		// consulta pelo id do usuário (+ ano/mês), e não por todos os campos populados do filtro
+		return doUsuario(lancamentoFiltro, () -> repository.buscar(lancamentoFiltro));
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-		Example<Lancamento> example = Example.of(lancamentoFiltro, // pega as propriedades populadas
-				ExampleMatcher.matching() // moço que ajuda na construção dessa query.
-						.withIgnoreCase().withStringMatcher(StringMatcher.CONTAINING)); // busca descrição
-																						// seletivamente.
+	public PaginaLancamentoDto buscarPagina(Lancamento filtro, Long cursor, int tamanho) {
+		// busca um a mais só para saber se existe próxima página
+		List<LancamentoDto> lancamentos = doUsuario(filtro, () -> repository.buscarPagina(filtro, cursor, tamanho + 1));
+		if (lancamentos.size() <= tamanho) {
+			return new PaginaLancamentoDto(lancamentos, null);
+		}
+		List<LancamentoDto> pagina = new ArrayList<>(lancamentos.subList(0, tamanho));
+		return new PaginaLancamentoDto(pagina, pagina.get(tamanho - 1).getId());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void percorrer(Lancamento filtro, Consumer<LancamentoDto> consumidor) {
+		doUsuario(filtro, () -> {
+			repository.percorrer(filtro, consumidor);
+			return null;
+		});
+	}
 
-		return repository.findAll(example);
+	// leitura na réplica, a não ser que o usuário tenha gravado há pouco (aí no primário)
+	private <T> T doUsuario(Lancamento filtro, Supplier<T> consulta) {
+		Long idUsuario = filtro.getUsuario() == null ? null : filtro.getUsuario().getId();
+		return roteamento.consultar(RoteamentoLeitura.usuario(idUsuario), consulta);
 	}
 
 	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
+		StatusLancamento atual = lancamento.getStatus();
+		for (int tentativa = 1;; tentativa++) {
+			validarTransicao(atual, status);
+			if (atual == status) {
+				break;
+			}
+			// só o status muda: um update direto, sem recarregar o lançamento nem mexer no saldo;
+			// a condição no status lido evita sobrescrever uma mudança concorrente
+			int atualizados = repository.atualizarStatus(lancamento.getId(), lancamento.getAno(), atual, status);
+			if (atualizados > 0) {
+				lancamento.setVersao(lancamento.getVersao() == null ? null : lancamento.getVersao() + 1);
+				historico.registrarStatus(lancamento.getUsuario().getId(),
+						Collections.singletonList(lancamento.getId()), status);
+				roteamento.registrarEscrita(RoteamentoLeitura.usuario(lancamento.getUsuario().getId()),
+						RoteamentoLeitura.lancamento(lancamento.getId()));
+				break;
+			}
+			if (tentativa >= tentativasStatus) {
+				throw new ObjectOptimisticLockingFailureException(Lancamento.class, lancamento.getId());
+			}
+			// outra operação mudou o status: relê e tenta de novo se a transição ainda valer
+			// (removido ou com outro ano: o cliente precisa recarregar o lançamento)
+			atual = repository.obterStatus(lancamento.getId(), lancamento.getAno())
+					.orElseThrow(() -> new ObjectOptimisticLockingFailureException(Lancamento.class, lancamento.getId()));
+		}
 		lancamento.setStatus(status);
-		atualizar(lancamento);
 	}
 
 	@Override
-	public Optional<Lancamento> obterPorId(Long id) {
-		return repository.findById(id);
+	@Transactional
+	public int atualizarStatusDoMes(Long idUsuario, Integer ano, Integer mes, StatusLancamento status) {
+		if (idUsuario == null || ano == null || mes == null) {
+			throw new RegraNegocioException("Informe usuário, ano e mês");
+		}
+		// o saldo materializado não depende do status, então não há o que recalcular
+		int atualizados = repository.atualizarStatusPorMes(idUsuario, ano, mes, origensPara(status), status);
+		if (atualizados > 0) {
+			historico.registrarStatusDoMes(idUsuario, ano, mes, status);
+		}
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(idUsuario));
+		return atualizados;
 	}
 
 	@Override
-	public void validar(Lancamento lancamento) {
-
-		// validando os campos obrigatórios da nossa tabela...
-		if (lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
-			throw new RegraNegocioException("Informe uma Descrição válida");
+	@Transactional
+	public int atualizarStatus(Long idUsuario, List<Long> ids, StatusLancamento status) {
+		if (idUsuario == null || ids == null || ids.isEmpty()) {
+			throw new RegraNegocioException("Informe o usuário e os lançamentos");
 		}
-
-		if (lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
-			throw new RegraNegocioException("Informe um Mês válido");
+		int atualizados = repository.atualizarStatusPorIds(idUsuario, ids, origensPara(status), status);
+		if (atualizados > 0) {
+			historico.registrarStatus(idUsuario, ids, status);
 		}
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(idUsuario));
+		return atualizados;
+	}
 
-		if (lancamento.getAno() == null || lancamento.getAno().toString().length() != 4) {
-			throw new RegraNegocioException("Informe um Ano válido");
+	private void validarTransicao(StatusLancamento atual, StatusLancamento novo) {
+		if (novo == null) {
+			throw new RegraNegocioException("Informe um Status válido");
 		}
-
-		if (lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
-			throw new RegraNegocioException("Informe um Usuário");
+		if (atual != null && atual != novo && !atual.podeMudarPara(novo)) {
+			throw new RegraNegocioException("Não é possível mudar o status de " + atual + " para " + novo);
 		}
+	}
 
-		if (lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
-			throw new RegraNegocioException("Informe um Valor válido");
+	private Set<StatusLancamento> origensPara(StatusLancamento status) {
+		if (status == null) {
+			throw new RegraNegocioException("Informe um Status válido");
 		}
-
-		if (lancamento.getTipo() == null) {
-			throw new RegraNegocioException("Informe um Tipo válido");
+		Set<StatusLancamento> origens = StatusLancamento.origensPara(status);
+		if (origens.isEmpty()) {
+			throw new RegraNegocioException("Nenhum lançamento pode ir para o status " + status);
 		}
+		return origens;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Lancamento> obterPorId(Long id) {
+		return roteamento.consultar(RoteamentoLeitura.lancamento(id), () -> repository.findById(id));
+	}
 
+	@Override
+	public void validar(Lancamento lancamento) {
+		// todas as regras numa passada, sem alocação; a exceção só existe quando há violação
+		int violacoes = ValidadorLancamento.verificar(lancamento);
+		if (violacoes != ValidadorLancamento.VALIDO) {
+			throw new ValidacaoLancamentoException(violacoes);
+		}
 	}
 
 	@Override
-	@Transactional
 	public BigDecimal obterSaldoPorUsuario(Long id) {
-		BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
-		BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
+		// saldo materializado (financas.saldo_usuario): uma leitura pela chave primária, na réplica;
+		// só o usuário ainda sem saldo gravado vai ao primário para materializá-lo
+		return saldoService.consultarSaldo(id).orElseGet(() -> saldoService.obterSaldo(id));
+	}
 
-		if (receitas == null) {
-			receitas = BigDecimal.ZERO;
-		}
+	@Override
+	public BigDecimal obterSaldoPorUsuarioEm(Long id, LocalDateTime data) {
+		return historico.obterSaldoEm(id, data);
+	}
 
-		if (despesas == null) {
-			despesas = BigDecimal.ZERO;
-		}
-		
-		return receitas.subtract(despesas);
+	@Override
+	public List<RelatorioMensalDto> obterRelatorio(Long idUsuario, Integer ano) {
+		return saldoService.obterRelatorio(idUsuario, ano);
 	}
 
 }
@@ -0,0 +1,81 @@
+package com.giulia.service.impl;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.LeituraReativaService;
+import com.giulia.service.UsuarioService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Service
+public class LeituraReativaServiceImp implements LeituraReativaService {
+
+	// estado inicial: sem cursor, a primeira busca lê a primeira página
+	private static final PaginaLancamentoDto INICIO = new PaginaLancamentoDto(Collections.emptyList(), null);
+
+	private final LancamentoService lancamentoService;
+	private final UsuarioService usuarioService;
+	private final int tamanhoPagina;
+	private final ExecutorService executor;
+	private final Scheduler scheduler;
+
+	public LeituraReativaServiceImp(LancamentoService lancamentoService, UsuarioService usuarioService,
+			@Value("${financas.reativo.tamanho-pagina:100}") int tamanhoPagina,
+			@Value("${financas.reativo.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads) {
+		this.lancamentoService = lancamentoService;
+		this.usuarioService = usuarioService;
+		this.tamanhoPagina = tamanhoPagina;
+		AtomicInteger contador = new AtomicInteger();
+		// o JDBC bloqueia: as consultas rodam aqui, com no máximo uma thread por conexão do pool
+		this.executor = Executors.newFixedThreadPool(threads, tarefa -> {
+			Thread thread = new Thread(tarefa, "leitura-reativa-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler = Schedulers.fromExecutorService(executor);
+	}
+
+	@Override
+	public Flux<LancamentoDto> buscar(Lancamento filtro) {
+		// cada pedido do concatMapIterable gera uma página, lida na thread do scheduler
+		return Flux.<PaginaLancamentoDto, PaginaLancamentoDto>generate(() -> INICIO, (anterior, saida) -> {
+			PaginaLancamentoDto pagina = lancamentoService.buscarPagina(filtro, anterior.getProximoCursor(),
+					tamanhoPagina);
+			saida.next(pagina);
+			if (pagina.getProximoCursor() == null) {
+				saida.complete();
+			}
+			return pagina;
+		}).subscribeOn(scheduler).concatMapIterable(PaginaLancamentoDto::getLancamentos, 1);
+	}
+
+	@Override
+	public Mono<BigDecimal> obterSaldo(Long idUsuario) {
+		// fromCallable trata o retorno null como vazio
+		return Mono.fromCallable(() -> usuarioService.obterPorId(idUsuario).isPresent()
+				? lancamentoService.obterSaldoPorUsuario(idUsuario)
+				: null).subscribeOn(scheduler);
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		scheduler.dispose();
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,240 @@
+package com.giulia.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.dto.RelatorioMensalDto;
+import com.giulia.model.entity.SaldoMensal;
+import com.giulia.model.entity.SaldoMensalId;
+import com.giulia.model.entity.SaldoUsuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.model.repository.SaldoMensalRepository;
+import com.giulia.model.repository.SaldoUsuarioRepository;
+import com.giulia.service.SaldoService;
+
+@Service
+public class SaldoServiceImp implements SaldoService {
+
+	private SaldoUsuarioRepository saldoUsuarioRepository;
+	private SaldoMensalRepository saldoMensalRepository;
+	private LancamentoRepository lancamentoRepository;
+	private RoteamentoLeitura roteamento;
+	private boolean postgresql;
+
+	public SaldoServiceImp(SaldoUsuarioRepository saldoUsuarioRepository,
+			SaldoMensalRepository saldoMensalRepository, LancamentoRepository lancamentoRepository,
+			RoteamentoLeitura roteamento, @Value("${spring.datasource.url:}") String url) {
+		this.saldoUsuarioRepository = saldoUsuarioRepository;
+		this.saldoMensalRepository = saldoMensalRepository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.roteamento = roteamento;
+		this.postgresql = DatabaseDriver.fromJdbcUrl(url) == DatabaseDriver.POSTGRESQL;
+	}
+
+	@Override
+	@Transactional
+	public void somar(ParcelaSaldoDto parcela) {
+		if (parcela.isCompleta()) {
+			aplicar(parcela, parcela.getValor());
+		}
+	}
+
+	@Override
+	@Transactional
+	public void subtrair(ParcelaSaldoDto parcela) {
+		if (parcela.isCompleta()) {
+			aplicar(parcela, parcela.getValor().negate());
+		}
+	}
+
+	private void aplicar(ParcelaSaldoDto parcela, BigDecimal valor) {
+		BigDecimal receitas = parcela.getTipo() == TipoLancamento.RECEITA ? valor : BigDecimal.ZERO;
+		BigDecimal despesas = parcela.getTipo() == TipoLancamento.DESPESA ? valor : BigDecimal.ZERO;
+
+		if (postgresql) { // upsert: sem corrida entre o update e o insert do primeiro lançamento
+			saldoUsuarioRepository.acumular(parcela.getUsuario(), receitas, despesas);
+			saldoMensalRepository.acumular(parcela.getUsuario(), parcela.getAno(), parcela.getMes(), receitas,
+					despesas);
+			return;
+		}
+		// demais bancos (H2 nos testes): incrementa e, se não havia linha, cria.
+		// primeiro lançamento do usuário (ou do mês): ainda não existe linha para incrementar
+		if (saldoUsuarioRepository.somar(parcela.getUsuario(), receitas, despesas) == 0) {
+			saldoUsuarioRepository.save(new SaldoUsuario(parcela.getUsuario(), receitas, despesas));
+		}
+		if (saldoMensalRepository.somar(parcela.getUsuario(), parcela.getAno(), parcela.getMes(), receitas,
+				despesas) == 0) {
+			saldoMensalRepository.save(
+					new SaldoMensal(parcela.getUsuario(), parcela.getAno(), parcela.getMes(), receitas, despesas));
+		}
+	}
+
+	@Override
+	@Transactional
+	public BigDecimal obterSaldo(Long idUsuario) {
+		Optional<SaldoUsuario> saldo = saldoUsuarioRepository.findById(idUsuario);
+		if (saldo.isPresent()) {
+			return saldo.get().getSaldo();
+		}
+		// usuário sem saldo materializado: calcula uma vez e grava
+		return reconstruir(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<BigDecimal> consultarSaldo(Long idUsuario) {
+		return roteamento.consultar(RoteamentoLeitura.usuario(idUsuario),
+				() -> saldoUsuarioRepository.obterSaldo(idUsuario));
+	}
+
+	@Override
+	@Transactional
+	public BigDecimal reconstruir(Long idUsuario) {
+		return sincronizar(idUsuario).getSaldo();
+	}
+
+	@Override
+	@Transactional
+	public boolean verificar(Long idUsuario) {
+		// bloqueia antes de somar os lançamentos: um lançamento gravado em paralelo ou já entrou na
+		// soma, ou espera esta transação e aplica o seu incremento sobre o valor corrigido
+		Optional<SaldoUsuario> gravado = saldoUsuarioRepository.bloquear(idUsuario);
+		BigDecimal receitas = gravado.map(SaldoUsuario::getReceitas).orElse(BigDecimal.ZERO);
+		BigDecimal despesas = gravado.map(SaldoUsuario::getDespesas).orElse(BigDecimal.ZERO);
+		Map<SaldoMensalId, SaldoMensal> mensaisGravados = indexar(saldoMensalRepository.findByIdUsuario(idUsuario));
+
+		Map<SaldoMensalId, SaldoMensal> mensaisEsperados = calcularMensais(idUsuario);
+		boolean divergente = !gravado.isPresent() && !mensaisEsperados.isEmpty()
+				|| mensaisGravados.size() != mensaisEsperados.size();
+		SaldoUsuario esperado = totalizar(idUsuario, mensaisEsperados);
+		divergente = divergente || esperado.getReceitas().compareTo(receitas) != 0
+				|| esperado.getDespesas().compareTo(despesas) != 0;
+		for (SaldoMensal mensal : mensaisEsperados.values()) {
+			SaldoMensal atual = mensaisGravados.get(mensal.getChave());
+			divergente = divergente || atual == null
+					|| atual.getReceitas().compareTo(mensal.getReceitas()) != 0
+					|| atual.getDespesas().compareTo(mensal.getDespesas()) != 0;
+		}
+
+		if (divergente) {
+			gravar(idUsuario, mensaisEsperados, mensaisGravados, gravado);
+		}
+		return divergente;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Set<Long> obterUsuariosComSaldo() {
+		Set<Long> ids = new TreeSet<>(lancamentoRepository.obterIdsUsuariosComLancamentos());
+		ids.addAll(saldoUsuarioRepository.obterIdsUsuarios());
+		return ids;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<RelatorioMensalDto> obterRelatorio(Long idUsuario, Integer ano) {
+		// lê os totais já agrupados por mês (saldo_mensal), nunca os lançamentos um a um
+		List<RelatorioMensalDto> meses = roteamento.consultar(RoteamentoLeitura.usuario(idUsuario),
+				() -> postgresql
+						? converterRelatorio(saldoMensalRepository.obterRelatorio(idUsuario))
+						: acumularRelatorio(saldoMensalRepository.findByIdUsuarioOrderByAnoAscMesAsc(idUsuario)));
+		if (ano != null) { // o acumulado considera os anos anteriores, por isso o filtro vem depois
+			meses.removeIf(mes -> !ano.equals(mes.getAno()));
+		}
+		return meses;
+	}
+
+	private List<RelatorioMensalDto> converterRelatorio(List<Object[]> linhas) {
+		List<RelatorioMensalDto> meses = new ArrayList<>(linhas.size());
+		for (Object[] linha : linhas) {
+			meses.add(new RelatorioMensalDto(((Number) linha[0]).intValue(), ((Number) linha[1]).intValue(),
+					(BigDecimal) linha[2], (BigDecimal) linha[3], (BigDecimal) linha[4], (BigDecimal) linha[5]));
+		}
+		return meses;
+	}
+
+	// mesmo cálculo da função de janela, para bancos sem ela (H2 nos testes)
+	private List<RelatorioMensalDto> acumularRelatorio(List<SaldoMensal> mensais) {
+		List<RelatorioMensalDto> meses = new ArrayList<>(mensais.size());
+		BigDecimal acumulado = BigDecimal.ZERO;
+		for (SaldoMensal mensal : mensais) {
+			BigDecimal saldo = mensal.getReceitas().subtract(mensal.getDespesas());
+			acumulado = acumulado.add(saldo);
+			meses.add(new RelatorioMensalDto(mensal.getAno(), mensal.getMes(), mensal.getReceitas(),
+					mensal.getDespesas(), saldo, acumulado));
+		}
+		return meses;
+	}
+
+	private SaldoUsuario sincronizar(Long idUsuario) {
+		Optional<SaldoUsuario> total = saldoUsuarioRepository.bloquear(idUsuario); // ver verificar
+		Map<SaldoMensalId, SaldoMensal> esperados = calcularMensais(idUsuario);
+		Map<SaldoMensalId, SaldoMensal> gravados = indexar(saldoMensalRepository.findByIdUsuario(idUsuario));
+		return gravar(idUsuario, esperados, gravados, total);
+	}
+
+	private SaldoUsuario gravar(Long idUsuario, Map<SaldoMensalId, SaldoMensal> esperados,
+			Map<SaldoMensalId, SaldoMensal> gravados, Optional<SaldoUsuario> totalGravado) {
+		Map<SaldoMensalId, SaldoMensal> sobras = new HashMap<>(gravados);
+		for (SaldoMensal esperado : esperados.values()) {
+			SaldoMensal atual = sobras.remove(esperado.getChave());
+			if (atual == null) {
+				saldoMensalRepository.save(esperado);
+			} else {
+				atual.setReceitas(esperado.getReceitas());
+				atual.setDespesas(esperado.getDespesas());
+			}
+		}
+		saldoMensalRepository.deleteAll(sobras.values());
+
+		SaldoUsuario esperado = totalizar(idUsuario, esperados);
+		SaldoUsuario total = totalGravado.orElse(esperado);
+		total.setReceitas(esperado.getReceitas());
+		total.setDespesas(esperado.getDespesas());
+		return saldoUsuarioRepository.save(total);
+	}
+
+	private Map<SaldoMensalId, SaldoMensal> calcularMensais(Long idUsuario) {
+		Map<SaldoMensalId, SaldoMensal> mensais = new LinkedHashMap<>();
+		List<ParcelaSaldoDto> parcelas = lancamentoRepository.obterParcelasSaldoPorUsuario(idUsuario);
+		for (ParcelaSaldoDto parcela : parcelas) {
+			SaldoMensalId chave = new SaldoMensalId(idUsuario, parcela.getAno(), parcela.getMes());
+			SaldoMensal mensal = mensais.computeIfAbsent(chave,
+					c -> new SaldoMensal(idUsuario, c.getAno(), c.getMes(), BigDecimal.ZERO, BigDecimal.ZERO));
+			mensal.acumular(parcela.getTipo(), parcela.getValor());
+		}
+		return mensais;
+	}
+
+	private SaldoUsuario totalizar(Long idUsuario, Map<SaldoMensalId, SaldoMensal> mensais) {
+		SaldoUsuario total = new SaldoUsuario(idUsuario, BigDecimal.ZERO, BigDecimal.ZERO);
+		for (SaldoMensal mensal : mensais.values()) {
+			total.acumular(TipoLancamento.RECEITA, mensal.getReceitas());
+			total.acumular(TipoLancamento.DESPESA, mensal.getDespesas());
+		}
+		return total;
+	}
+
+	private Map<SaldoMensalId, SaldoMensal> indexar(List<SaldoMensal> mensais) {
+		Map<SaldoMensalId, SaldoMensal> indice = new HashMap<>();
+		for (SaldoMensal mensal : mensais) {
+			indice.put(mensal.getChave(), mensal);
+		}
+		return indice;
+	}
+}
@@ -0,0 +1,80 @@
+package com.giulia.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.giulia.service.SenhaService;
+
+@Service
+public class SenhaServiceImp implements SenhaService {
+
+	private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+	private final int custo;
+	private final BCryptPasswordEncoder encoder;
+	private final ThreadPoolExecutor executor;
+
+	public SenhaServiceImp(@Value("${financas.senha.custo:10}") int custo,
+			@Value("${financas.senha.threads:0}") int threads, @Value("${financas.senha.fila:200}") int fila) {
+		this.custo = custo;
+		this.encoder = new BCryptPasswordEncoder(custo);
+		int tamanho = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger contador = new AtomicInteger();
+		// fila cheia rejeita a verificação em vez de segurar mais threads do Tomcat esperando
+		this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(fila), tarefa -> {
+					Thread thread = new Thread(tarefa, "verificacao-senha-" + contador.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@Override
+	public String criptografar(String senha) {
+		return senha == null ? null : encoder.encode(senha);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> conferir(String senha, String senhaGravada) {
+		return CompletableFuture.supplyAsync(() -> confere(senha, senhaGravada), executor);
+	}
+
+	public boolean confere(String senha, String senhaGravada) {
+		if (senha == null || senhaGravada == null) {
+			return false;
+		}
+		if (BCRYPT.matcher(senhaGravada).matches()) {
+			return encoder.matches(senha, senhaGravada);
+		}
+		// legado em texto puro: comparação em tempo constante, a senha é recriptografada no login
+		return MessageDigest.isEqual(senha.getBytes(StandardCharsets.UTF_8),
+				senhaGravada.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public boolean precisaAtualizar(String senhaGravada) {
+		if (senhaGravada == null || !BCRYPT.matcher(senhaGravada).matches()) {
+			return true;
+		}
+		int custoGravado = Integer.parseInt(senhaGravada.substring(senhaGravada.indexOf('$', 1) + 1,
+				senhaGravada.indexOf('$', 1) + 3));
+		return custoGravado != custo;
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdown();
+	}
+}
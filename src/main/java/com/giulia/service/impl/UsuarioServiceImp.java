@@ -3,15 +3,26 @@ package com.giulia.service.impl;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import com.giulia.datasource.RoteamentoLeitura;
 import com.giulia.exception.ErroAutenticacao;
 import com.giulia.exception.RegraNegocioException;
 import com.giulia.model.entity.Usuario;
 import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.SenhaService;
 import com.giulia.service.UsuarioService;
+import com.giulia.service.cache.CacheUsuario;
+import com.giulia.service.cache.UsuarioAlteradoEvent;
 
 @Service
 public class UsuarioServiceImp implements UsuarioService {
@@ -19,30 +30,83 @@ public class UsuarioServiceImp implements UsuarioService {
 	@Autowired
 	private UsuarioRepository repository;
 	
-	public UsuarioServiceImp(UsuarioRepository repository) {
+	private ApplicationEventPublisher eventos;
+	
+	private SenhaService senhaService;
+	
+	private RoteamentoLeitura roteamento;
+	
+	@Autowired
+	@Lazy // o próprio proxy: a recriptografia precisa da transação e da invalidação do cache
+	private UsuarioService proxy;
+	
+	public UsuarioServiceImp(UsuarioRepository repository, ApplicationEventPublisher eventos,
+			SenhaService senhaService, RoteamentoLeitura roteamento) {
 		super();
 		this.repository = repository;
+		this.eventos = eventos;
+		this.senhaService = senhaService;
+		this.roteamento = roteamento;
 	}
 
 	@Override
 	public Usuario autenticar(String email, String senha) {
-		Optional<Usuario> usuario = repository.findByEmail(email);
+		try {
+			return autenticarAssincrono(email, senha).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha) {
+		// recém-cadastrado pode ainda não estar na réplica: lê do primário por alguns segundos
+		Optional<Usuario> usuario = roteamento.consultar(RoteamentoLeitura.email(email),
+				() -> repository.findByEmail(email));
 		if(!usuario.isPresent()) {
 			throw new ErroAutenticacao("Email Inválido");
 		}
 		
-		if(!usuario.get().getSenha().equals(senha)) {
-			throw new ErroAutenticacao("Senha Inválida");
-		}
-		
-		return usuario.get();
+		String senhaGravada = usuario.get().getSenha();
+		return senhaService.conferir(senha, senhaGravada).thenApply(confere -> {
+			if (!confere) {
+				throw new ErroAutenticacao("Senha Inválida");
+			}
+			if (senhaService.precisaAtualizar(senhaGravada)) { // legado em texto puro ou custo antigo
+				return proxy.atualizarSenha(usuario.get(), senha);
+			}
+			return usuario.get();
+		});
 	}
 
 	@Override
 	@Transactional //salva e comita na base de dados
+	@Caching(evict = { @CacheEvict(cacheNames = CacheUsuario.POR_ID, key = "#result.id"),
+			@CacheEvict(cacheNames = CacheUsuario.POR_EMAIL, key = "#result.email") })
 	public Usuario salvarUsuario(Usuario usuario) {
 		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
+		usuario.setSenha(senhaService.criptografar(usuario.getSenha()));
+		Usuario salvo = repository.save(usuario);
+		eventos.publishEvent(new UsuarioAlteradoEvent(salvo.getId(), salvo.getEmail())); // avisa os outros nós
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(salvo.getId()), RoteamentoLeitura.email(salvo.getEmail()));
+		return salvo;
+	}
+
+	@Override
+	@Transactional
+	@Caching(evict = { @CacheEvict(cacheNames = CacheUsuario.POR_ID, key = "#usuario.id"),
+			@CacheEvict(cacheNames = CacheUsuario.POR_EMAIL, key = "#usuario.email") })
+	public Usuario atualizarSenha(Usuario usuario, String senha) {
+		// grava uma cópia: o usuário recebido pode ser a mesma instância guardada no cache de findByEmail
+		Usuario copia = Usuario.builder().id(usuario.getId()).nome(usuario.getNome()).email(usuario.getEmail())
+				.senha(senhaService.criptografar(senha)).build();
+		Usuario salvo = repository.save(copia);
+		eventos.publishEvent(new UsuarioAlteradoEvent(salvo.getId(), salvo.getEmail())); // avisa os outros nós
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(salvo.getId()), RoteamentoLeitura.email(salvo.getEmail()));
+		return salvo;
 	}
 
 	@Override
@@ -54,8 +118,9 @@ public class UsuarioServiceImp implements UsuarioService {
 	}
 
 	@Override
+	@Cacheable(cacheNames = CacheUsuario.POR_ID, unless = "#result == null") // usuário inexistente não fica no cache
 	public Optional<Usuario> obterPorId(Long id) {
-		return repository.findById(id);
+		return roteamento.consultar(RoteamentoLeitura.usuario(id), () -> repository.findById(id));
 	}
 
 }
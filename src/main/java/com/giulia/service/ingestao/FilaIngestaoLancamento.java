@@ -0,0 +1,275 @@
+package com.giulia.service.ingestao;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.SituacaoIngestaoDto;
+import com.giulia.exception.FilaCheiaException;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.UsuarioService;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Gravação assíncrona do POST /salvar (financas.ingestao.habilitada): o controller valida e
+// enfileira, a resposta é 202 com um protocolo, e uma thread grava em lotes de até tamanhoLote,
+// cada lote numa transação (salvarEmLote). A fila é limitada: cheia, a requisição recebe 429.
+// Cada entrada vai para o journal antes do 202, então sobrevive a uma queda do processo; a entrega
+// é pelo menos uma vez (uma queda entre o commit e a conclusão no journal grava o lote de novo).
+// Só sai do journal o que foi gravado ou rejeitado pela regra de negócio; falha do banco é
+// tentada de novo, e enquanto isso a fila enche e as novas requisições recebem 429.
+@Component
+@ConditionalOnProperty(name = "financas.ingestao.habilitada", havingValue = "true")
+@Slf4j
+public class FilaIngestaoLancamento {
+
+	private final LancamentoService lancamentoService;
+	private final UsuarioService usuarioService;
+	private final JournalIngestao journal;
+	private final BlockingQueue<Pendente> fila;
+	private final Cache<String, SituacaoIngestaoDto> situacoes;
+	private final int tamanhoLote;
+	private final long esperaEncerramentoMs;
+
+	// espera entre tentativas quando o banco falha: dobra a cada tentativa até o máximo
+	@Value("${financas.ingestao.retentativa-ms:500}")
+	private long retentativaMs = 500;
+
+	@Value("${financas.ingestao.retentativa-maxima-ms:30000}")
+	private long retentativaMaximaMs = 30000;
+
+	private Thread gravador;
+	private volatile boolean aceitando = true;
+	private volatile boolean executando;
+
+	public FilaIngestaoLancamento(LancamentoService lancamentoService, UsuarioService usuarioService,
+			ObjectMapper objectMapper, MeterRegistry registry,
+			@Value("${financas.ingestao.capacidade:10000}") int capacidade,
+			@Value("${financas.ingestao.tamanho-lote:500}") int tamanhoLote,
+			@Value("${financas.ingestao.journal:dados/ingestao-lancamento.journal}") String arquivo,
+			@Value("${financas.ingestao.journal-sincronizar:true}") boolean sincronizar,
+			@Value("${financas.ingestao.situacao-validade-min:60}") long validadeMin,
+			@Value("${financas.ingestao.situacao-maximo:100000}") long situacoesMaximo,
+			@Value("${financas.ingestao.espera-encerramento-ms:10000}") long esperaEncerramentoMs) {
+		this.lancamentoService = lancamentoService;
+		this.usuarioService = usuarioService;
+		this.tamanhoLote = tamanhoLote;
+		this.esperaEncerramentoMs = esperaEncerramentoMs;
+		// limite por quantidade além da validade: uma rajada de POSTs não cresce o heap até a expiração
+		this.situacoes = Caffeine.newBuilder().expireAfterWrite(validadeMin, TimeUnit.MINUTES)
+				.maximumSize(situacoesMaximo).build();
+		this.journal = new JournalIngestao(Paths.get(arquivo), objectMapper, sincronizar);
+
+		// o que ficou no journal da execução anterior entra na frente, mesmo acima da capacidade
+		Map<String, LancamentoDto> recuperados = journal.recuperar();
+		this.fila = new ArrayBlockingQueue<>(Math.max(capacidade, recuperados.size() + 1));
+		recuperados.forEach((protocolo, dto) -> {
+			fila.add(new Pendente(protocolo, dto));
+			situacoes.put(protocolo, situacao(protocolo, SituacaoIngestaoDto.PENDENTE, null, null));
+		});
+		if (!recuperados.isEmpty()) {
+			log.warn("{} lançamentos recuperados do journal de ingestão {}", recuperados.size(), arquivo);
+		}
+		Gauge.builder("financas.ingestao.fila", fila, BlockingQueue::size)
+				.description("lançamentos aguardando gravação na fila assíncrona").register(registry);
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		executando = true;
+		gravador = new Thread(this::gravar, "ingestao-lancamento");
+		gravador.setDaemon(true);
+		gravador.start();
+	}
+
+	// o dto já foi validado pelo chamador; o protocolo só é devolvido depois da escrita no journal
+	public SituacaoIngestaoDto enfileirar(LancamentoDto dto) {
+		String protocolo = UUID.randomUUID().toString();
+		SituacaoIngestaoDto situacao = situacao(protocolo, SituacaoIngestaoDto.PENDENTE, null, null);
+		// a trava mantém journal e fila na mesma ordem; só a thread gravadora retira da fila, então
+		// havendo vaga na checagem o add abaixo não falha
+		synchronized (this) {
+			if (!aceitando || fila.remainingCapacity() == 0) {
+				throw new FilaCheiaException("Fila de gravação cheia, tente novamente");
+			}
+			journal.registrarEntrada(protocolo, dto);
+			situacoes.put(protocolo, situacao);
+			fila.add(new Pendente(protocolo, dto));
+		}
+		return situacao;
+	}
+
+	public Optional<SituacaoIngestaoDto> obterSituacao(String protocolo) {
+		return Optional.ofNullable(situacoes.getIfPresent(protocolo));
+	}
+
+	public int tamanho() {
+		return fila.size();
+	}
+
+	private void gravar() {
+		List<Pendente> lote = new ArrayList<>(tamanhoLote);
+		while (executando || !fila.isEmpty()) {
+			try {
+				Pendente primeiro = fila.poll(200, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				lote.add(primeiro);
+				fila.drainTo(lote, tamanhoLote - 1);
+				gravarLote(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				// journal inacessível: o lote continua lá e volta na próxima subida
+				log.error("Falha na gravação assíncrona de {} lançamentos", lote.size(), e);
+			} finally {
+				lote.clear();
+			}
+		}
+	}
+
+	// grava o lote; o que falhou por indisponibilidade do banco (e não por regra de negócio) continua
+	// no journal e é tentado de novo, com espera crescente, antes do próximo lote
+	private void gravarLote(List<Pendente> lote) throws InterruptedException {
+		List<Pendente> restantes = lote;
+		long espera = retentativaMs;
+		while (true) {
+			restantes = tentar(restantes);
+			if (restantes.isEmpty() || !executando) {
+				return; // no encerramento, o que falhou fica no journal e volta na próxima subida
+			}
+			log.warn("Falha ao gravar {} lançamentos da fila assíncrona, nova tentativa em {} ms", restantes.size(),
+					espera);
+			Thread.sleep(espera);
+			espera = Math.min(espera * 2, retentativaMaximaMs);
+		}
+	}
+
+	// devolve os que precisam de nova tentativa; só gravados e rejeitados saem do journal
+	private List<Pendente> tentar(List<Pendente> lote) {
+		Map<Long, Optional<Usuario>> usuarios = new HashMap<>(); // uma consulta por usuário do lote
+		List<String> concluidos = new ArrayList<>(lote.size());
+		List<Pendente> falharam = new ArrayList<>();
+		try {
+			List<Lancamento> lancamentos = new ArrayList<>(lote.size());
+			for (Pendente pendente : lote) {
+				lancamentos.add(converter(pendente.dto, usuarios));
+			}
+			lancamentoService.salvarEmLote(lancamentos);
+			for (int i = 0; i < lote.size(); i++) {
+				concluir(lote.get(i).protocolo, SituacaoIngestaoDto.GRAVADO, lancamentos.get(i).getId(), null);
+				concluidos.add(lote.get(i).protocolo);
+			}
+		} catch (RuntimeException e) {
+			// um lançamento ruim não derruba os outros: o lote é refeito um a um
+			for (Pendente pendente : lote) {
+				if (gravarSozinho(pendente, usuarios)) {
+					concluidos.add(pendente.protocolo);
+				} else {
+					falharam.add(pendente);
+				}
+			}
+		}
+		synchronized (this) {
+			journal.registrarConclusao(concluidos);
+			if (falharam.isEmpty() && fila.isEmpty()) {
+				journal.truncar(); // nada pendente: o journal não cresce sem limite
+			}
+		}
+		return falharam;
+	}
+
+	// true quando o lançamento teve destino (gravado ou rejeitado pela regra de negócio)
+	private boolean gravarSozinho(Pendente pendente, Map<Long, Optional<Usuario>> usuarios) {
+		try {
+			Lancamento salvo = lancamentoService.salvar(converter(pendente.dto, usuarios));
+			concluir(pendente.protocolo, SituacaoIngestaoDto.GRAVADO, salvo.getId(), null);
+			return true;
+		} catch (RegraNegocioException e) {
+			log.warn("Lançamento {} da fila assíncrona rejeitado: {}", pendente.protocolo, e.getMessage());
+			concluir(pendente.protocolo, SituacaoIngestaoDto.ERRO, null, e.getMessage());
+			return true;
+		} catch (RuntimeException e) {
+			// banco fora do ar, pool esgotado...: continua PENDENTE e no journal
+			log.warn("Lançamento {} da fila assíncrona não gravado: {}", pendente.protocolo, e.getMessage());
+			return false;
+		}
+	}
+
+	// cada tentativa parte do dto: uma entidade de um lote desfeito pode ter ficado com id e versão
+	private Lancamento converter(LancamentoDto dto, Map<Long, Optional<Usuario>> usuarios) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(dto.getDescricao());
+		lancamento.setAno(dto.getAno());
+		lancamento.setMes(dto.getMes());
+		lancamento.setValor(dto.getValor());
+		lancamento.setUsuario(usuarios.computeIfAbsent(dto.getUsuario(), usuarioService::obterPorId)
+				.orElseThrow(() -> new RegraNegocioException("Usuário não existe para id informado")));
+		lancamento.setTipo(TipoLancamento.porNome(dto.getTipo()));
+		lancamentoService.validar(lancamento);
+		return lancamento;
+	}
+
+	private void concluir(String protocolo, String situacao, Long idLancamento, String mensagem) {
+		situacoes.put(protocolo, situacao(protocolo, situacao, idLancamento, mensagem));
+	}
+
+	private SituacaoIngestaoDto situacao(String protocolo, String situacao, Long idLancamento, String mensagem) {
+		return SituacaoIngestaoDto.builder().protocolo(protocolo).situacao(situacao).lancamento(idLancamento)
+				.mensagem(mensagem).build();
+	}
+
+	// para de aceitar e espera a fila esvaziar; o que não der tempo fica no journal
+	@PreDestroy
+	public void encerrar() throws IOException, InterruptedException {
+		synchronized (this) {
+			aceitando = false;
+			executando = false;
+		}
+		if (gravador != null) {
+			gravador.join(esperaEncerramentoMs);
+			if (gravador.isAlive()) {
+				gravador.interrupt();
+				gravador.join(esperaEncerramentoMs);
+			}
+		}
+		journal.close();
+	}
+
+	private static class Pendente {
+		final String protocolo;
+		final LancamentoDto dto;
+
+		Pendente(String protocolo, LancamentoDto dto) {
+			this.protocolo = protocolo;
+			this.dto = dto;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.giulia.service.ingestao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.dto.LancamentoDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Arquivo local (uma linha JSON por registro, só acréscimos) com o que entrou na fila e ainda não
+// foi gravado no banco: {protocolo, lancamento} na entrada e {protocolo} na conclusão. Na subida,
+// as entradas sem conclusão voltam para a fila. Quando a fila esvazia, o arquivo é truncado.
+@Slf4j
+class JournalIngestao implements Closeable {
+
+	private final Path arquivo;
+	private final ObjectMapper objectMapper;
+	private final boolean sincronizar;
+	private FileChannel canal;
+
+	JournalIngestao(Path arquivo, ObjectMapper objectMapper, boolean sincronizar) {
+		this.arquivo = arquivo;
+		this.objectMapper = objectMapper;
+		this.sincronizar = sincronizar;
+	}
+
+	// entradas ainda sem conclusão, na ordem de chegada; o arquivo é reescrito só com elas
+	synchronized Map<String, LancamentoDto> recuperar() {
+		Map<String, LancamentoDto> pendentes = new LinkedHashMap<>();
+		try {
+			Files.createDirectories(arquivo.toAbsolutePath().getParent());
+			if (Files.exists(arquivo)) {
+				try (BufferedReader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+					String linha;
+					while ((linha = leitor.readLine()) != null) {
+						ler(linha, pendentes);
+					}
+				}
+			}
+			compactar(pendentes);
+			canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return pendentes;
+	}
+
+	// grava as pendentes num arquivo temporário ao lado e só então o troca pelo journal: uma queda
+	// durante a reescrita deixa o journal antigo inteiro, nunca um arquivo truncado pela metade
+	private void compactar(Map<String, LancamentoDto> pendentes) throws IOException {
+		Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+		try (FileChannel destino = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (Map.Entry<String, LancamentoDto> pendente : pendentes.entrySet()) {
+				escrever(destino, new Registro(pendente.getKey(), pendente.getValue()));
+			}
+			destino.force(false);
+		}
+		Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private void ler(String linha, Map<String, LancamentoDto> pendentes) {
+		if (linha.trim().isEmpty()) {
+			return;
+		}
+		try {
+			Registro registro = objectMapper.readValue(linha, Registro.class);
+			if (registro.getLancamento() != null) {
+				pendentes.put(registro.getProtocolo(), registro.getLancamento());
+			} else {
+				pendentes.remove(registro.getProtocolo());
+			}
+		} catch (IOException e) {
+			// última linha cortada por uma queda no meio da escrita: a requisição não recebeu o 202
+			log.warn("Linha ignorada no journal de ingestão {}: {}", arquivo, e.getMessage());
+		}
+	}
+
+	synchronized void registrarEntrada(String protocolo, LancamentoDto lancamento) {
+		escrever(canal, new Registro(protocolo, lancamento));
+		forcar();
+	}
+
+	synchronized void registrarConclusao(Iterable<String> protocolos) {
+		for (String protocolo : protocolos) {
+			escrever(canal, new Registro(protocolo, null));
+		}
+		forcar();
+	}
+
+	synchronized void truncar() {
+		try {
+			canal.truncate(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void escrever(FileChannel destino, Registro registro) {
+		try {
+			byte[] linha = (objectMapper.writeValueAsString(registro) + "\n").getBytes(StandardCharsets.UTF_8);
+			ByteBuffer buffer = ByteBuffer.wrap(linha);
+			while (buffer.hasRemaining()) {
+				destino.write(buffer, destino.size());
+			}
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// sem fsync, uma queda do sistema operacional (e não só do processo) pode perder as últimas entradas
+	private void forcar() {
+		if (!sincronizar) {
+			return;
+		}
+		try {
+			canal.force(false);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (canal != null) {
+			canal.close();
+		}
+	}
+
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	static class Registro {
+		private String protocolo;
+		private LancamentoDto lancamento; // null na conclusão
+	}
+}
@@ -0,0 +1,37 @@
+package com.giulia.service.job;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.giulia.service.HistoricoLancamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Grava periodicamente um instantâneo do saldo de cada usuário com eventos novos, para que o
+// saldo numa data some só a cauda do histórico. O instantâneo fica 'margem' minutos para trás:
+// um evento gravado numa transação ainda aberta não pode ficar de fora de um instantâneo já feito.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InstantaneoSaldoJob {
+
+	private final HistoricoLancamentoService historico;
+
+	@Value("${financas.historico.instantaneo.margem-min:5}")
+	private int margemMinutos;
+
+	@Scheduled(cron = "${financas.historico.instantaneo.cron:0 30 * * * *}")
+	public void executar() {
+		LocalDateTime ate = LocalDateTime.now().minusMinutes(margemMinutos);
+		int gerados = 0;
+		for (Long idUsuario : historico.obterUsuariosSemInstantaneo(ate)) {
+			historico.gerarInstantaneo(idUsuario, ate); // cada usuário na sua própria transação
+			gerados++;
+		}
+		log.info("Instantâneos de saldo até {}: {} usuários", ate, gerados);
+	}
+}
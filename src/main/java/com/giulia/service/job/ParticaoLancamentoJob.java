@@ -0,0 +1,44 @@
+package com.giulia.service.job;
+
+import java.time.Year;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// PostgreSQL: cria com antecedência as partições anuais de financas.lancamento. Um ano sem
+// partição própria cai em lancamento_outros, que não é podada pelo ano nas consultas; ao criar a
+// partição do ano, as linhas dele saem de lancamento_outros (V13).
+@Component
+// o banco vem da URL JDBC, como no SaldoServiceImp
+@ConditionalOnExpression("T(org.springframework.boot.jdbc.DatabaseDriver).fromJdbcUrl('${spring.datasource.url:}')"
+		+ " == T(org.springframework.boot.jdbc.DatabaseDriver).POSTGRESQL")
+@RequiredArgsConstructor
+@Slf4j
+public class ParticaoLancamentoJob {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Value("${financas.particao.anos-a-frente:2}")
+	private int anosAFrente;
+
+	@Scheduled(cron = "${financas.particao.cron:0 0 4 1 * *}")
+	public void executar() {
+		int atual = Year.now().getValue();
+		for (int ano = atual; ano <= atual + anosAFrente; ano++) {
+			try {
+				jdbcTemplate.query("select financas.criar_particao_lancamento(?)", rs -> null, ano);
+			} catch (DataAccessException e) {
+				// um ano que falhou não impede os seguintes; os lançamentos dele seguem em lancamento_outros
+				log.error("Falha ao criar a partição de lançamentos de {}", ano, e);
+			}
+		}
+		log.info("Partições de lançamento verificadas até {}", atual + anosAFrente);
+	}
+}
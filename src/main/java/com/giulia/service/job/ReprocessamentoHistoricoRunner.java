@@ -0,0 +1,57 @@
+package com.giulia.service.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.giulia.service.HistoricoLancamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Ferramenta de reprocessamento: na subida, refaz os lançamentos a partir do histórico de eventos
+// (e recalcula o saldo materializado) para os usuários informados, ou todos com histórico.
+//   java -jar financas.jar --financas.historico.reprocessar=todos
+//   java -jar financas.jar --financas.historico.reprocessar=1,2,3
+@Component
+@ConditionalOnProperty(name = "financas.historico.reprocessar")
+@RequiredArgsConstructor
+@Slf4j
+public class ReprocessamentoHistoricoRunner implements ApplicationRunner {
+
+	private final HistoricoLancamentoService historico;
+
+	@Value("${financas.historico.reprocessar}")
+	private String usuarios;
+
+	@Override
+	public void run(ApplicationArguments argumentos) {
+		int corrigidos = 0;
+		List<Long> ids = usuarios();
+		for (Long idUsuario : ids) {
+			int doUsuario = historico.reprocessar(idUsuario); // cada usuário na sua própria transação
+			if (doUsuario > 0) {
+				log.warn("Usuário {}: {} lançamentos refeitos a partir do histórico", idUsuario, doUsuario);
+			}
+			corrigidos += doUsuario;
+		}
+		log.info("Reprocessamento do histórico concluído: {} usuários, {} lançamentos corrigidos", ids.size(),
+				corrigidos);
+	}
+
+	private List<Long> usuarios() {
+		if ("todos".equalsIgnoreCase(usuarios.trim())) {
+			return historico.obterUsuariosComHistorico();
+		}
+		List<Long> ids = new ArrayList<>();
+		for (String id : usuarios.split(",")) {
+			ids.add(Long.valueOf(id.trim()));
+		}
+		return ids;
+	}
+}
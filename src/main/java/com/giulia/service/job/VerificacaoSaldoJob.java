@@ -0,0 +1,34 @@
+package com.giulia.service.job;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.giulia.service.SaldoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Recalcula periodicamente o saldo materializado a partir dos lançamentos
+// e corrige (registrando no log) qualquer divergência encontrada.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VerificacaoSaldoJob {
+
+	private final SaldoService saldoService;
+
+	@Scheduled(cron = "${financas.saldo.verificacao.cron:0 0 3 * * *}")
+	public void executar() {
+		int verificados = 0;
+		int divergentes = 0;
+		for (Long idUsuario : saldoService.obterUsuariosComSaldo()) {
+			verificados++;
+			if (saldoService.verificar(idUsuario)) { // cada usuário na sua própria transação
+				divergentes++;
+				log.warn("Saldo materializado divergente para o usuário {}; recalculado a partir dos lançamentos",
+						idUsuario);
+			}
+		}
+		log.info("Verificação de saldos concluída: {} usuários, {} divergentes", verificados, divergentes);
+	}
+}
@@ -0,0 +1,33 @@
+package com.giulia.service.validacao;
+
+// Violações que o ValidadorLancamento reconhece, na ordem em que são conferidas.
+// O código (name) é estável para clientes e relatórios; a mensagem é a mostrada ao usuário.
+public enum ErroValidacao {
+	DESCRICAO_INVALIDA("descricao", "Informe uma Descrição válida"),
+	MES_INVALIDO("mes", "Informe um Mês válido"),
+	ANO_INVALIDO("ano", "Informe um Ano válido"),
+	USUARIO_AUSENTE("usuario", "Informe um Usuário"),
+	VALOR_INVALIDO("valor", "Informe um Valor válido"),
+	TIPO_INVALIDO("tipo", "Informe um Tipo válido");
+
+	private final String campo;
+	private final String mensagem;
+
+	ErroValidacao(String campo, String mensagem) {
+		this.campo = campo;
+		this.mensagem = mensagem;
+	}
+
+	public String getCampo() {
+		return campo;
+	}
+
+	public String getMensagem() {
+		return mensagem;
+	}
+
+	// bit do erro na máscara devolvida pelo validador
+	int bit() {
+		return 1 << ordinal();
+	}
+}
@@ -0,0 +1,80 @@
+package com.giulia.service.validacao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.giulia.model.entity.Lancamento;
+
+// Validação do lançamento sem alocar nem lançar exceção no caminho de sucesso: todas as regras
+// são conferidas e as violações voltam numa máscara de bits (0 = válido). Só quem recebe uma
+// máscara diferente de zero paga pela lista de erros (erros/primeiro).
+public final class ValidadorLancamento {
+
+	public static final int VALIDO = 0;
+
+	static final int ANO_MINIMO = 1000;
+	static final int ANO_MAXIMO = 9999;
+
+	private ValidadorLancamento() {
+	}
+
+	public static int verificar(Lancamento lancamento) {
+		int violacoes = VALIDO;
+		if (!preenchido(lancamento.getDescricao())) {
+			violacoes |= ErroValidacao.DESCRICAO_INVALIDA.bit();
+		}
+		if (!entre(lancamento.getMes(), 1, 12)) {
+			violacoes |= ErroValidacao.MES_INVALIDO.bit();
+		}
+		// quatro dígitos por faixa numérica (toString().length() == 4 aceitava também -100..-999)
+		if (!entre(lancamento.getAno(), ANO_MINIMO, ANO_MAXIMO)) {
+			violacoes |= ErroValidacao.ANO_INVALIDO.bit();
+		}
+		if (lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+			violacoes |= ErroValidacao.USUARIO_AUSENTE.bit();
+		}
+		if (!positivo(lancamento.getValor())) {
+			violacoes |= ErroValidacao.VALOR_INVALIDO.bit();
+		}
+		if (lancamento.getTipo() == null) {
+			violacoes |= ErroValidacao.TIPO_INVALIDO.bit();
+		}
+		return violacoes;
+	}
+
+	public static boolean contem(int violacoes, ErroValidacao erro) {
+		return (violacoes & erro.bit()) != 0;
+	}
+
+	public static List<ErroValidacao> erros(int violacoes) {
+		List<ErroValidacao> erros = new ArrayList<>(Integer.bitCount(violacoes));
+		for (ErroValidacao erro : ErroValidacao.values()) {
+			if (contem(violacoes, erro)) {
+				erros.add(erro);
+			}
+		}
+		return erros;
+	}
+
+	// mesmo critério de String.trim().isEmpty(), sem criar a String aparada
+	static boolean preenchido(String texto) {
+		if (texto == null) {
+			return false;
+		}
+		for (int i = 0; i < texto.length(); i++) {
+			if (texto.charAt(i) > ' ') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static boolean entre(Integer numero, int minimo, int maximo) {
+		return numero != null && numero >= minimo && numero <= maximo;
+	}
+
+	static boolean positivo(BigDecimal valor) {
+		return valor != null && valor.signum() > 0;
+	}
+}
@@ -0,0 +1,3 @@
+-- A senha passou a ser gravada como hash BCrypt (60 caracteres); o varchar(20) original
+-- recusava todo cadastro e a recriptografia das senhas legadas no login.
+alter table financas.usuario alter column senha type character varying(60);
@@ -0,0 +1,3 @@
+-- O saldo é lido da tabela materializada (V2): a soma por usuário e tipo na lancamento deixou de
+-- existir e o índice da V8 só custava escrita.
+drop index if exists financas.idx_lancamento_usuario_tipo;
@@ -0,0 +1,4 @@
+-- O job de instantâneos procura só os eventos depois do último corte (max(ate)): os dois
+-- lados dessa busca por data, sem varrer o histórico nem os instantâneos inteiros.
+create index idx_evento_lancamento_data on financas.evento_lancamento (data_hora);
+create index idx_saldo_instantaneo_ate on financas.saldo_instantaneo (ate);
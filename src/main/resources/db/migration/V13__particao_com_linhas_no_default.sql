@@ -0,0 +1,20 @@
+-- "create table ... partition of" falha quando lancamento_outros (DEFAULT) já tem linhas do ano.
+-- A partição passa a nascer como tabela avulsa: as linhas do ano saem da DEFAULT para ela e só
+-- então ela é anexada. O lock na DEFAULT impede que um insert do ano caia lá no meio do caminho.
+create or replace function financas.criar_particao_lancamento(p_ano integer) returns void as $$
+declare
+  v_tabela text := format('lancamento_%s', p_ano);
+begin
+  if to_regclass(format('financas.%I', v_tabela)) is not null then
+    return;
+  end if;
+  lock table financas.lancamento_outros in access exclusive mode;
+  execute format('create table financas.%I (like financas.lancamento including defaults including constraints)',
+      v_tabela);
+  execute format('insert into financas.%I select * from financas.lancamento_outros where ano = %s', v_tabela, p_ano);
+  execute format('delete from financas.lancamento_outros where ano = %s', p_ano);
+  -- índices, chave primária e chave estrangeira do pai são criados na partição ao anexar
+  execute format('alter table financas.lancamento attach partition financas.%I for values from (%s) to (%s)',
+      v_tabela, p_ano, p_ano + 1);
+end;
+$$ language plpgsql;
@@ -0,0 +1,3 @@
+-- Token da requisição dona da reserva: concluir, liberar e assumir uma chave abandonada deixam
+-- de depender da igualdade de datas (que perde precisão na ida e volta do banco).
+alter table financas.idempotencia add column dono character varying(36);
@@ -0,0 +1,31 @@
+-- Saldo materializado por usuário e por usuário/ano/mês, mantido pelas escritas em lancamento.
+
+create table financas.saldo_usuario
+(
+  id_usuario bigint not null primary key references financas.usuario (id),
+  receitas numeric(16,2) not null default 0,
+  despesas numeric(16,2) not null default 0
+);
+
+create table financas.saldo_mensal
+(
+  id_usuario bigint not null references financas.usuario (id),
+  ano integer not null,
+  mes integer not null,
+  receitas numeric(16,2) not null default 0,
+  despesas numeric(16,2) not null default 0,
+  primary key (id_usuario, ano, mes)
+);
+
+insert into financas.saldo_mensal (id_usuario, ano, mes, receitas, despesas)
+select id_usuario, ano, mes,
+       coalesce(sum(valor) filter (where tipo = 'RECEITA'), 0),
+       coalesce(sum(valor) filter (where tipo = 'DESPESA'), 0)
+  from financas.lancamento
+ where id_usuario is not null
+ group by id_usuario, ano, mes;
+
+insert into financas.saldo_usuario (id_usuario, receitas, despesas)
+select id_usuario, sum(receitas), sum(despesas)
+  from financas.saldo_mensal
+ group by id_usuario;
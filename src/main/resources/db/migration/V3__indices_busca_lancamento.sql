@@ -0,0 +1,6 @@
+-- Busca de lançamentos (/api/lancamento/buscar): filtro por usuário, ano e mês.
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes);
+
+-- lower(descricao) like '%texto%' só usa índice com trigramas (pg_trgm).
+create extension if not exists pg_trgm;
+create index idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- O Hibernate reserva ids de lancamento em blocos de 50 (allocationSize, otimizador pooled),
+-- o que permite agrupar os inserts em lotes JDBC. O incremento precisa ser igual.
+alter sequence financas.lancamento_id_seq increment by 50;
@@ -0,0 +1,3 @@
+-- Controle de concorrência otimista: cada update incrementa a versão e só é aplicado
+-- se a versão lida ainda for a do banco (senão a API responde 409).
+alter table financas.lancamento add column versao bigint not null default 0;
@@ -0,0 +1,12 @@
+-- Chaves de idempotência do salvar de lançamentos (financas.idempotencia.armazenamento=banco).
+-- id_lancamento nulo: a requisição original ainda está em andamento.
+
+create table financas.idempotencia
+(
+  chave character varying(200) not null primary key,
+  id_lancamento bigint,
+  data_criacao timestamp not null default now()
+);
+
+-- limpeza periódica das chaves vencidas
+create index idx_idempotencia_data_criacao on financas.idempotencia (data_criacao);
@@ -0,0 +1,51 @@
+-- lancamento particionada por ano (PostgreSQL 11+). Toda consulta filtra por id_usuario e quase
+-- sempre por ano/mês: com o ano no filtro o planejador lê só a partição do ano (partition pruning),
+-- e vacuum/índices ficam por partição. A chave primária precisa conter a chave de partição.
+
+alter table financas.lancamento rename to lancamento_nao_particionada;
+alter table financas.lancamento_nao_particionada drop constraint lancamento_pkey;
+alter sequence financas.lancamento_id_seq owned by none;
+
+create table financas.lancamento
+(
+  id bigint not null default nextval('financas.lancamento_id_seq'),
+  descricao character varying(100) not null,
+  mes integer not null,
+  ano integer not null,
+  valor numeric(16,2) not null,
+  tipo character varying(20) check (tipo in ('RECEITA', 'DESPESA')) not null,
+  status character varying(20) check (status in ('PENDENTE', 'CANCELADO', 'EFETIVADO')) not null,
+  id_usuario bigint references financas.usuario (id),
+  data_cadastro date default now(),
+  versao bigint not null default 0,
+  primary key (id, ano)
+) partition by range (ano);
+
+-- uma partição por ano; usada também pelo ParticaoLancamentoJob para criar os anos seguintes
+create or replace function financas.criar_particao_lancamento(p_ano integer) returns void as $$
+begin
+  execute format('create table if not exists financas.lancamento_%s partition of financas.lancamento '
+      || 'for values from (%s) to (%s)', p_ano, p_ano, p_ano + 1);
+end;
+$$ language plpgsql;
+
+select financas.criar_particao_lancamento(ano)
+from generate_series(
+  least((select min(ano) from financas.lancamento_nao_particionada), extract(year from now())::integer),
+  extract(year from now())::integer + 2) as ano;
+
+-- anos sem partição própria (datas muito antigas ou futuras) não se perdem
+create table financas.lancamento_outros partition of financas.lancamento default;
+
+insert into financas.lancamento (id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao)
+select id, descricao, mes, ano, valor, tipo, status, id_usuario, data_cadastro, versao
+from financas.lancamento_nao_particionada;
+
+alter sequence financas.lancamento_id_seq owned by financas.lancamento.id;
+drop table financas.lancamento_nao_particionada;
+
+-- criados no pai, replicados em cada partição (e nas que vierem)
+create index idx_lancamento_usuario_ano_mes on financas.lancamento (id_usuario, ano, mes, id);
+create index idx_lancamento_descricao_trgm on financas.lancamento using gin (lower(descricao) gin_trgm_ops);
+
+analyze financas.lancamento;
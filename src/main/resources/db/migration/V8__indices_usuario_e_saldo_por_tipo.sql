@@ -0,0 +1,7 @@
+-- Login e cadastro (findByEmail / existsByEmail) buscam o usuário pelo email: índice único.
+-- Emails repetidos precisam ser resolvidos antes, senão a criação do índice falha.
+create unique index idx_usuario_email on financas.usuario (email);
+
+-- Saldo por usuário e tipo (obterSaldoPorTipoLancamentoEUsuario): com o valor no índice a soma
+-- é um index-only scan, sem visitar a tabela. (id_usuario, ano, mes) já existe desde a V3.
+create index idx_lancamento_usuario_tipo on financas.lancamento (id_usuario, tipo) include (valor);
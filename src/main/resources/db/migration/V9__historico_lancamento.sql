@@ -0,0 +1,49 @@
+-- Histórico (append-only) das escritas em lançamento e instantâneos periódicos do saldo.
+-- O saldo numa data é o último instantâneo até ela mais os eventos seguintes até a data.
+
+create sequence financas.evento_lancamento_id_seq increment by 50;
+
+create table financas.evento_lancamento
+(
+  id bigint not null primary key,
+  id_lancamento bigint,
+  id_usuario bigint not null references financas.usuario (id),
+  evento character varying(20) check (evento in ('CRIADO', 'ALTERADO', 'STATUS_ALTERADO', 'REMOVIDO')) not null,
+  data_hora timestamp not null,
+  descricao character varying(100),
+  mes integer,
+  ano integer,
+  valor numeric(16,2),
+  tipo character varying(20),
+  status character varying(20),
+  data_cadastro date,
+  receitas numeric(16,2) not null default 0,
+  despesas numeric(16,2) not null default 0
+);
+
+-- eventos do usuário num intervalo de tempo (cauda após o instantâneo e reprocessamento)
+create index idx_evento_lancamento_usuario_data on financas.evento_lancamento (id_usuario, data_hora);
+
+create table financas.saldo_instantaneo
+(
+  id bigserial not null primary key,
+  id_usuario bigint not null references financas.usuario (id),
+  ate timestamp not null,
+  receitas numeric(16,2) not null,
+  despesas numeric(16,2) not null
+);
+
+create unique index idx_saldo_instantaneo_usuario_ate on financas.saldo_instantaneo (id_usuario, ate);
+
+-- os lançamentos que já existem entram no histórico como criados, no estado atual
+insert into financas.evento_lancamento (id, id_lancamento, id_usuario, evento, data_hora, descricao, mes, ano,
+                                        valor, tipo, status, data_cadastro, receitas, despesas)
+select row_number() over (order by id), id, id_usuario, 'CRIADO', coalesce(data_cadastro, current_date),
+       descricao, mes, ano, valor, tipo, status, data_cadastro,
+       case when tipo = 'RECEITA' then valor else 0 end,
+       case when tipo = 'DESPESA' then valor else 0 end
+  from financas.lancamento
+ where id_usuario is not null;
+
+-- o Hibernate usa os 50 ids abaixo de cada valor da sequência (otimizador pooled)
+select setval('financas.evento_lancamento_id_seq', (select coalesce(max(id), 0) from financas.evento_lancamento) + 50);
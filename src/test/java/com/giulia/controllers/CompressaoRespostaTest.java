@@ -0,0 +1,75 @@
+package com.giulia.controllers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.LancamentoService;
+
+// gzip é do Tomcat (server.compression), então o teste sobe o servidor numa porta de verdade
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class CompressaoRespostaTest {
+
+	@Autowired
+	TestRestTemplate rest;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	Usuario usuario;
+
+	@Before
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			lancamentos.add(Lancamento.builder().descricao("lancamento " + i).mes(1).ano(2019).valor(BigDecimal.TEN)
+					.tipo(TipoLancamento.RECEITA).usuario(usuario).dataCadastro(LocalDate.now()).build());
+		}
+		lancamentoService.salvarEmLote(lancamentos);
+	}
+
+	@Test
+	public void deveComprimirABuscaQuandoOClienteAceitaGzip() {
+		for (String tipo : new String[] { "application/json", "application/x-jackson-smile" }) {
+			ResponseEntity<byte[]> resposta = buscar(tipo, "gzip");
+			Assertions.assertThat(resposta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		}
+		Assertions.assertThat(buscar("application/json", "identity").getHeaders()
+				.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+	}
+
+	private ResponseEntity<byte[]> buscar(String tipo, String codificacao) {
+		HttpHeaders cabecalhos = new HttpHeaders();
+		cabecalhos.set(HttpHeaders.ACCEPT, tipo);
+		cabecalhos.set(HttpHeaders.ACCEPT_ENCODING, codificacao);
+		return rest.exchange("/api/lancamento/buscar?usuario=" + usuario.getId(), HttpMethod.GET,
+				new HttpEntity<>(cabecalhos), byte[].class);
+	}
+}
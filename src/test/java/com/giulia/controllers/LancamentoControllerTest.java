@@ -0,0 +1,238 @@
+package com.giulia.controllers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.metricas.ContagemConsultasAdvice;
+import com.giulia.metricas.OrcamentoConsultas;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.idempotencia.RegistroIdempotencia;
+
+// Testes de ponta a ponta (H2) que fixam quantos statements SQL cada endpoint pode executar
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LancamentoControllerTest {
+
+	static final String API = "/api/lancamento";
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	Usuario usuario;
+	Long idLancamento;
+
+	@Before
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+		for (int i = 0; i < 5; i++) {
+			idLancamento = lancamentoService.salvar(Lancamento.builder().descricao("lancamento " + i).mes(1).ano(2019)
+					.valor(BigDecimal.TEN).tipo(TipoLancamento.RECEITA).status(StatusLancamento.PENDENTE)
+					.usuario(usuario).dataCadastro(LocalDate.now()).build()).getId();
+		}
+		OrcamentoConsultas.zerar();
+	}
+
+	@Test
+	public void deveBuscarComUmaConsultaPorLancamentosEUmaPorUsuario() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(API + "/buscar").param("usuario", usuario.getId().toString()))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(5))
+				.andExpect(MockMvcResultMatchers.header().string(ContagemConsultasAdvice.CABECALHO, "2"));
+
+		// o usuário agora vem do cache: só a consulta dos lançamentos
+		mvc.perform(MockMvcRequestBuilders.get(API + "/buscar").param("usuario", usuario.getId().toString()))
+				.andExpect(MockMvcResultMatchers.header().string(ContagemConsultasAdvice.CABECALHO, "1"));
+	}
+
+	@Test
+	public void deveSalvarDentroDoOrcamentoDeConsultas() throws Exception {
+		LancamentoDto dto = LancamentoDto.builder().descricao("novo").mes(1).ano(2019).valor(BigDecimal.TEN)
+				.tipo("DESPESA").usuario(usuario.getId()).build();
+
+		mvc.perform(MockMvcRequestBuilders.post(API + "/salvar").contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isCreated());
+
+		// usuário, insert do lançamento, os dois incrementos de saldo (usuário e mês) e o evento no histórico
+		OrcamentoConsultas.verificar(5);
+	}
+
+	@Test
+	public void deveDevolverOsCodigosDasViolacoes() throws Exception {
+		LancamentoDto dto = LancamentoDto.builder().descricao("novo").mes(13).ano(2019).tipo("DESPESA")
+				.usuario(usuario.getId()).build();
+
+		mvc.perform(MockMvcRequestBuilders.post(API + "/salvar").contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(dto)))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[*].codigo").value(Matchers.contains("MES_INVALIDO",
+						"VALOR_INVALIDO")))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].campo").value("mes"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].mensagem").value("Informe um Mês válido"));
+	}
+
+	@Test
+	public void deveAtualizarStatusSemCarregarOUsuario() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.put(API + "/atualizar-status/" + idLancamento)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"EFETIVADO\"}"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+				.andExpect(MockMvcResultMatchers.jsonPath("usuario").value(usuario.getId()));
+
+		// o lançamento (sem join com usuário), o update só do status e o evento no histórico
+		OrcamentoConsultas.verificar(3);
+	}
+
+	@Test
+	public void deveRecusarAtualizacaoComVersaoDesatualizada() throws Exception {
+		LancamentoDto dto = LancamentoDto.builder().descricao("editado").mes(1).ano(2019).valor(BigDecimal.TEN)
+				.tipo("RECEITA").usuario(usuario.getId()).versao(0l).build();
+		String corpo = new ObjectMapper().writeValueAsString(dto);
+
+		mvc.perform(MockMvcRequestBuilders.put(API + "/atualizar/" + idLancamento)
+				.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("versao").value(1));
+
+		// o mesmo corpo (versão 0) de novo: outra gravação já aconteceu
+		mvc.perform(MockMvcRequestBuilders.put(API + "/atualizar/" + idLancamento)
+				.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(MockMvcResultMatchers.status().isConflict());
+	}
+
+	@Test
+	public void deveSalvarUmaUnicaVezRequisicoesComAMesmaChave() throws Exception {
+		String corpo = new ObjectMapper().writeValueAsString(LancamentoDto.builder().descricao("repetido").mes(1)
+				.ano(2019).valor(BigDecimal.TEN).tipo("DESPESA").usuario(usuario.getId()).build());
+		int requisicoes = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(requisicoes);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<MvcResult>> respostas = new ArrayList<>();
+		try {
+			for (int i = 0; i < requisicoes; i++) {
+				respostas.add(executor.submit(() -> {
+					largada.await();
+					return mvc.perform(MockMvcRequestBuilders.post(API + "/salvar")
+							.header(RegistroIdempotencia.CABECALHO, "chave-1").contentType(MediaType.APPLICATION_JSON)
+							.content(corpo)).andReturn();
+				}));
+			}
+			largada.countDown();
+
+			Set<String> corpos = new HashSet<>();
+			for (Future<MvcResult> resposta : respostas) {
+				MvcResult resultado = resposta.get(30, TimeUnit.SECONDS);
+				Assertions.assertThat(resultado.getResponse().getStatus()).isEqualTo(201);
+				corpos.add(resultado.getResponse().getContentAsString());
+			}
+			Assertions.assertThat(corpos).hasSize(1); // todas com o mesmo lançamento
+		} finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertThat(lancamentoService.buscar(Lancamento.builder().usuario(usuario).build())).hasSize(6);
+
+		// outra chave é outro lançamento
+		mvc.perform(MockMvcRequestBuilders.post(API + "/salvar").header(RegistroIdempotencia.CABECALHO, "chave-2")
+				.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(MockMvcResultMatchers.status().isCreated());
+		Assertions.assertThat(lancamentoService.buscar(Lancamento.builder().usuario(usuario).build())).hasSize(7);
+	}
+
+	@Test
+	public void deveRepetirARespostaSemConsultarOBanco() throws Exception {
+		String corpo = new ObjectMapper().writeValueAsString(LancamentoDto.builder().descricao("retry").mes(1)
+				.ano(2019).valor(BigDecimal.TEN).tipo("DESPESA").usuario(usuario.getId()).build());
+		String original = mvc.perform(MockMvcRequestBuilders.post(API + "/salvar")
+				.header(RegistroIdempotencia.CABECALHO, "retry").contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andReturn().getResponse().getContentAsString();
+		OrcamentoConsultas.zerar();
+
+		mvc.perform(MockMvcRequestBuilders.post(API + "/salvar").header(RegistroIdempotencia.CABECALHO, "retry")
+				.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(MockMvcResultMatchers.status().isCreated())
+				.andExpect(MockMvcResultMatchers.content().json(original));
+
+		OrcamentoConsultas.verificar(0);
+	}
+
+	@Test
+	public void deveTransmitirOsLancamentosSemPrenderARequisicao() throws Exception {
+		MvcResult resultado = mvc
+				.perform(MockMvcRequestBuilders.get(API + "/buscar/reativo").param("usuario", usuario.getId().toString())
+						.accept(MediaType.APPLICATION_STREAM_JSON))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		resultado.getAsyncResult(10000);
+
+		String[] linhas = resultado.getResponse().getContentAsString().split("\n");
+		Assertions.assertThat(linhas).hasSize(5);
+		Assertions.assertThat(new ObjectMapper().readValue(linhas[4], LancamentoDto.class).getId())
+				.isEqualTo(idLancamento);
+	}
+
+	@Test
+	public void deveNegociarOFormatoBinarioDaBusca() throws Exception {
+		for (ObjectMapper leitor : new ObjectMapper[] { new ObjectMapper(new CBORFactory()),
+				new ObjectMapper(new SmileFactory()) }) {
+			String tipo = leitor.getFactory() instanceof CBORFactory ? "application/cbor" : "application/x-jackson-smile";
+			byte[] corpo = mvc
+					.perform(MockMvcRequestBuilders.get(API + "/buscar").param("usuario", usuario.getId().toString())
+							.accept(MediaType.parseMediaType(tipo)))
+					.andExpect(MockMvcResultMatchers.status().isOk())
+					.andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(tipo)).andReturn().getResponse()
+					.getContentAsByteArray();
+
+			LancamentoDto[] lancamentos = leitor.readValue(corpo, LancamentoDto[].class);
+			Assertions.assertThat(lancamentos).hasSize(5);
+			Assertions.assertThat(lancamentos[4].getId()).isEqualTo(idLancamento);
+			Assertions.assertThat(lancamentos[4].getValor()).isEqualByComparingTo(BigDecimal.TEN);
+		}
+
+		// sem Accept (ou */*) continua JSON
+		mvc.perform(MockMvcRequestBuilders.get(API + "/buscar").param("usuario", usuario.getId().toString())
+				.accept(MediaType.ALL))
+				.andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+}
@@ -1,5 +1,9 @@
 package com.giulia.controllers;
 
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -11,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -21,8 +26,11 @@ import com.giulia.exception.ErroAutenticacao;
 import com.giulia.exception.RegraNegocioException;
 import com.giulia.model.entity.Usuario;
 import com.giulia.service.LancamentoService;
+import com.giulia.service.LeituraReativaService;
 import com.giulia.service.UsuarioService;
 
+import reactor.core.publisher.Mono;
+
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioController.class) // vai 'subir' uma api apenas de teste
@@ -41,6 +49,9 @@ public class UsuarioControllerTest {
 	@MockBean
 	LancamentoService lancamentoService;
 
+	@MockBean
+	LeituraReativaService leituraReativaService;
+
 	@Test
 	public void deveAutenticarUsuarioComSucesso() throws Exception {
 		// cenario
@@ -50,7 +61,7 @@ public class UsuarioControllerTest {
 		UsuarioDto dto = UsuarioDto.builder().email(email).senha(senha).build();
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 
-		Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(service.autenticarAssincrono(email, senha)).thenReturn(CompletableFuture.completedFuture(usuario));
 
 		String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -58,7 +69,10 @@ public class UsuarioControllerTest {
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
 				.contentType(JSON).content(json);
 
-		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isOk())
+		// a resposta é assíncrona: primeiro a requisição, depois o despacho com o resultado
+		MvcResult resultado = mvc.perform(request).andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andExpect(MockMvcResultMatchers.status().isOk())
 				.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 				.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
 				.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
@@ -72,7 +86,9 @@ public class UsuarioControllerTest {
 		String senha = "123";
 
 		UsuarioDto dto = UsuarioDto.builder().email(email).senha(senha).build();
-		Mockito.when(service.autenticar(email, senha)).thenThrow(ErroAutenticacao.class);
+		CompletableFuture<Usuario> falha = new CompletableFuture<>();
+		falha.completeExceptionally(new ErroAutenticacao("Senha Inválida"));
+		Mockito.when(service.autenticarAssincrono(email, senha)).thenReturn(falha);
 
 		String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -80,7 +96,38 @@ public class UsuarioControllerTest {
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
 				.contentType(JSON).content(json);
 
-		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isBadRequest());
+		MvcResult resultado = mvc.perform(request).andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void deveRetornarBadRequestQuandoEmailNaoExiste() throws Exception {
+		UsuarioDto dto = UsuarioDto.builder().email("usuario@email.com").senha("123").build();
+		Mockito.when(service.autenticarAssincrono("usuario@email.com", "123"))
+				.thenThrow(new ErroAutenticacao("Email Inválido"));
+
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
+				.contentType(JSON).content(new ObjectMapper().writeValueAsString(dto));
+
+		MvcResult resultado = mvc.perform(request).andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void deveRetornarServicoIndisponivelComFilaDeVerificacaoCheia() throws Exception {
+		UsuarioDto dto = UsuarioDto.builder().email("usuario@email.com").senha("123").build();
+		CompletableFuture<Usuario> rejeitada = new CompletableFuture<>();
+		rejeitada.completeExceptionally(new RejectedExecutionException());
+		Mockito.when(service.autenticarAssincrono("usuario@email.com", "123")).thenReturn(rejeitada);
+
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.post(API.concat("/autenticar")).accept(JSON)
+				.contentType(JSON).content(new ObjectMapper().writeValueAsString(dto));
+
+		MvcResult resultado = mvc.perform(request).andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
 	}
 
 	@Test
@@ -123,4 +170,19 @@ public class UsuarioControllerTest {
 		mvc.perform(request).andExpect(MockMvcResultMatchers.status().isBadRequest() );
 	}
 
+	@Test
+	public void deveObterOSaldoDeFormaReativa() throws Exception {
+		Mockito.when(leituraReativaService.obterSaldo(1l)).thenReturn(Mono.just(BigDecimal.TEN));
+		Mockito.when(leituraReativaService.obterSaldo(2l)).thenReturn(Mono.empty());
+
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/saldo/1/reativo")))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado)).andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().string("10"));
+
+		resultado = mvc.perform(MockMvcRequestBuilders.get(API.concat("/saldo/2/reativo"))).andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+				.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
 }
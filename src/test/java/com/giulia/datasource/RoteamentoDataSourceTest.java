@@ -0,0 +1,83 @@
+package com.giulia.datasource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.LancamentoService;
+
+// Primário e réplica como dois H2 em memória: o schema (ddl-auto) só existe no primário,
+// então qualquer leitura de lançamento que fosse à réplica falharia.
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = { "financas.replica.habilitada=true",
+		"financas.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas" })
+public class RoteamentoDataSourceTest {
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	RoteamentoLeitura roteamento;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Test
+	public void deveLerDaReplicaNasTransacoesSomenteLeitura() {
+		Assertions.assertThat(banco(true)).isEqualTo("REPLICA");
+	}
+
+	@Test
+	public void deveEscreverNoPrimario() {
+		Assertions.assertThat(banco(false)).isEqualTo("DB");
+	}
+
+	@Test
+	public void deveLerDoPrimarioLogoAposUmaEscrita() {
+		roteamento.registrarEscrita(RoteamentoLeitura.usuario(-1l));
+
+		Assertions.assertThat(roteamento.consultar(RoteamentoLeitura.usuario(-1l), () -> banco(true))).isEqualTo("DB");
+		Assertions.assertThat(roteamento.consultar(RoteamentoLeitura.usuario(-2l), () -> banco(true)))
+				.isEqualTo("REPLICA");
+	}
+
+	@Test
+	public void deveEncontrarOLancamentoRecemGravadoPeloUsuario() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+		Lancamento salvo = lancamentoService.salvar(Lancamento.builder().descricao("recente").mes(1).ano(2019)
+				.valor(BigDecimal.TEN).tipo(TipoLancamento.RECEITA).usuario(usuario).dataCadastro(LocalDate.now())
+				.build());
+
+		Assertions.assertThat(lancamentoService.buscar(Lancamento.builder().usuario(usuario).build())).hasSize(1);
+		Assertions.assertThat(lancamentoService.obterPorId(salvo.getId())).isPresent();
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("10");
+	}
+
+	private String banco(boolean somenteLeitura) {
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		transacao.setReadOnly(somenteLeitura);
+		return transacao.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+	}
+}
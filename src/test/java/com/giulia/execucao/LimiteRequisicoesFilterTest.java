@@ -0,0 +1,67 @@
+package com.giulia.execucao;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class LimiteRequisicoesFilterTest {
+
+	LimiteRequisicoesFilter filtro = new LimiteRequisicoesFilter(1, 50);
+
+	@Test
+	public void deveLiberarAVagaAoFimDaRequisicao() throws Exception {
+		MockHttpServletResponse resposta = new MockHttpServletResponse();
+
+		filtro.doFilter(new MockHttpServletRequest(), resposta, new MockFilterChain());
+
+		Assertions.assertThat(resposta.getStatus()).isEqualTo(200);
+		Assertions.assertThat(filtro.vagasLivres()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveManterAVagaAteOFimDaRequisicaoAssincrona() throws Exception {
+		MockHttpServletRequest requisicao = new MockHttpServletRequest();
+		requisicao.setAsyncSupported(true);
+
+		filtro.doFilter(requisicao, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+		Assertions.assertThat(filtro.vagasLivres()).isZero();
+		requisicao.getAsyncContext().complete();
+		Assertions.assertThat(filtro.vagasLivres()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveResponder503SemVagaDepoisDaEspera() throws Exception {
+		CountDownLatch ocupada = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Thread lenta = new Thread(() -> {
+			try {
+				filtro.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+					ocupada.countDown();
+					try {
+						liberar.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				});
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		lenta.start();
+		ocupada.await(5, TimeUnit.SECONDS);
+
+		MockHttpServletResponse resposta = new MockHttpServletResponse();
+		filtro.doFilter(new MockHttpServletRequest(), resposta, new MockFilterChain());
+		liberar.countDown();
+		lenta.join();
+
+		Assertions.assertThat(resposta.getStatus()).isEqualTo(503);
+		Assertions.assertThat(filtro.vagasLivres()).isEqualTo(1);
+	}
+}
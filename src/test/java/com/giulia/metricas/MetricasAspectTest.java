@@ -0,0 +1,83 @@
+package com.giulia.metricas;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.service.HistoricoLancamentoService;
+import com.giulia.service.LancamentoService;
+import com.giulia.service.SaldoService;
+import com.giulia.service.impl.LancamentoServiceImp;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasAspectTest {
+
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	LancamentoService service;
+
+	@Before
+	public void setUp() {
+		AspectJProxyFactory fabrica = new AspectJProxyFactory(new LancamentoServiceImp(
+				Mockito.mock(LancamentoRepository.class), Mockito.mock(SaldoService.class),
+				Mockito.mock(HistoricoLancamentoService.class), new RoteamentoLeitura(5, 100)));
+		fabrica.addAspect(new MetricasAspect(registry));
+		service = fabrica.getProxy();
+		Metrics.addRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.removeRegistry(registry);
+	}
+
+	@Test
+	public void deveMedirOTempoDosMetodosDeServico() {
+		service.obterPorId(1l);
+		service.obterPorId(2l);
+
+		Assertions.assertThat(registry.get(MetricasAspect.METODO).tag("classe", "LancamentoServiceImp")
+				.tag("metodo", "obterPorId").tag("excecao", "none").timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	public void deveContarErrosDeNegocioPorCategoria() {
+		Assertions.assertThatThrownBy(() -> service.salvar(new Lancamento()))
+				.isInstanceOf(RegraNegocioException.class);
+
+		// violação de validação: subclasse de RegraNegocioException com todos os erros do lançamento
+		Assertions.assertThat(registry.get(MetricasAspect.ERROS).tag("tipo", "ValidacaoLancamentoException")
+				.tag("categoria", "Informe uma Descrição válida").counter().count()).isEqualTo(1);
+		Assertions.assertThat(registry.get(MetricasAspect.METODO).tag("metodo", "salvar")
+				.tag("excecao", "ValidacaoLancamentoException").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void deveAgruparMensagensComDetalhesNaMesmaCategoria() {
+		Assertions.assertThat(MetricasAspect.categoria("Coluna obrigatória ausente no CSV: tipo"))
+				.isEqualTo(MetricasAspect.categoria("Coluna obrigatória ausente no CSV: usuario"));
+		Assertions.assertThat(MetricasAspect.categoria("Linha 12 inválida")).isEqualTo("Linha # inválida");
+	}
+
+	@Test
+	public void deveRegistrarConsultasPorSessao() {
+		ConsultasPorSessaoListener listener = new ConsultasPorSessaoListener();
+		for (int i = 0; i < 3; i++) {
+			listener.jdbcExecuteStatementStart();
+			listener.jdbcExecuteStatementEnd();
+		}
+		listener.end();
+
+		Assertions.assertThat(registry.get(ConsultasPorSessaoListener.CONSULTAS).summary().totalAmount())
+				.isEqualTo(3);
+		Assertions.assertThat(registry.get(ConsultasPorSessaoListener.TEMPO).timer().count()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,25 @@
+package com.giulia.metricas;
+
+import org.assertj.core.api.Assertions;
+
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+// Orçamento de statements SQL nos testes: zera a contagem da thread, executa e confere o total.
+// Depende do ContagemConsultasDataSource no contexto (testes com @SpringBootTest).
+public final class OrcamentoConsultas {
+
+	private OrcamentoConsultas() {
+	}
+
+	public static void zerar() {
+		QueryCountHolder.clear();
+	}
+
+	public static long total() {
+		return QueryCountHolder.getGrandTotal().getTotal();
+	}
+
+	public static void verificar(long esperado) {
+		Assertions.assertThat(total()).as("statements SQL executados").isEqualTo(esperado);
+	}
+}
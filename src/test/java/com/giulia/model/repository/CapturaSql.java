@@ -0,0 +1,30 @@
+package com.giulia.model.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Guarda o SQL que o Hibernate gera (hibernate.session_factory.statement_inspector), para o
+// EXPLAIN do PlanoConsultasTest rodar sobre o statement que a aplicação executa de fato.
+public class CapturaSql implements StatementInspector {
+
+	private static final List<String> CAPTURADOS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		CAPTURADOS.add(sql);
+		return sql;
+	}
+
+	public static void limpar() {
+		CAPTURADOS.clear();
+	}
+
+	public static String ultimo() {
+		if (CAPTURADOS.isEmpty()) {
+			throw new AssertionError("Nenhum SQL gerado pelo Hibernate");
+		}
+		return CAPTURADOS.get(CAPTURADOS.size() - 1);
+	}
+}
@@ -2,6 +2,8 @@ package com.giulia.model.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
@@ -15,7 +17,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.giulia.dto.LancamentoDto;
 import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
 import com.giulia.model.enums.StatusLancamento;
 import com.giulia.model.enums.TipoLancamento;
 
@@ -84,6 +88,121 @@ public class LancamentoRepositoryTest {
 		
 	}
 
+	@Test
+	public void deveInserirEmLote() {
+		List<Lancamento> lote = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			lote.add(criarLancamento());
+		}
+
+		repository.inserirEmLote(lote);
+
+		Assertions.assertThat(lote).extracting(Lancamento::getId).doesNotContainNull().doesNotHaveDuplicates();
+		Assertions.assertThat(repository.count()).isEqualTo(120);
+	}
+
+	@Test
+	public void deveBuscarPaginasPeloCursor() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTeste.criarUsuario());
+		for (int i = 0; i < 3; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+
+		List<LancamentoDto> primeira = repository.buscarPagina(filtro, null, 2);
+		List<LancamentoDto> segunda = repository.buscarPagina(filtro, primeira.get(1).getId(), 2);
+
+		Assertions.assertThat(primeira).hasSize(2);
+		Assertions.assertThat(segunda).hasSize(1);
+		Assertions.assertThat(segunda.get(0).getId()).isGreaterThan(primeira.get(1).getId());
+	}
+
+	@Test
+	public void deveFiltrarPorDescricaoSemDiferenciarMaiusculas() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTeste.criarUsuario());
+		Lancamento aluguel = criarLancamento();
+		aluguel.setDescricao("Aluguel 100%");
+		aluguel.setUsuario(usuario);
+		entityManager.persist(aluguel);
+		Lancamento mercado = criarLancamento();
+		mercado.setDescricao("Mercado 1000");
+		mercado.setUsuario(usuario);
+		entityManager.persist(mercado);
+
+		Lancamento filtro = Lancamento.builder().usuario(usuario).descricao("ALUGUEL 100%").build();
+		List<LancamentoDto> encontrados = repository.buscarPagina(filtro, null, 10);
+
+		Assertions.assertThat(encontrados).extracting(LancamentoDto::getDescricao).containsExactly("Aluguel 100%");
+	}
+
+	@Test
+	public void deveBuscarApenasLancamentosDoUsuarioNoAno() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTeste.criarUsuario());
+		Usuario outro = entityManager.persist(Usuario.builder().email("outro@email.com").nome("outro").build());
+		Lancamento doAno = criarLancamento();
+		doAno.setUsuario(usuario);
+		entityManager.persist(doAno);
+		Lancamento deOutroAno = criarLancamento();
+		deOutroAno.setAno(2018);
+		deOutroAno.setUsuario(usuario);
+		entityManager.persist(deOutroAno);
+		Lancamento deOutroUsuario = criarLancamento();
+		deOutroUsuario.setUsuario(outro);
+		entityManager.persist(deOutroUsuario);
+
+		List<LancamentoDto> encontrados = repository.buscar(Lancamento.builder().usuario(usuario).ano(2019).build());
+
+		Assertions.assertThat(encontrados).extracting(LancamentoDto::getId).containsExactly(doAno.getId());
+		Assertions.assertThat(encontrados.get(0).getUsuario()).isEqualTo(usuario.getId());
+		Assertions.assertThat(encontrados.get(0).getTipo()).isEqualTo("RECEITA");
+	}
+
+	@Test
+	public void devePercorrerTodosOsLancamentosDoUsuario() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTeste.criarUsuario());
+		for (int i = 0; i < 3; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		entityManager.flush();
+
+		List<Long> ids = new ArrayList<>();
+		repository.percorrer(Lancamento.builder().usuario(usuario).ano(2019).build(), l -> ids.add(l.getId()));
+
+		Assertions.assertThat(ids).hasSize(3).isSorted();
+	}
+
+	@Test
+	public void deveEfetivarOsPendentesDoMesNumUnicoUpdate() {
+		Usuario usuario = entityManager.persist(UsuarioRepositoryTeste.criarUsuario());
+		Lancamento pendente = criarLancamento();
+		pendente.setUsuario(usuario);
+		entityManager.persist(pendente);
+		Lancamento cancelado = criarLancamento();
+		cancelado.setUsuario(usuario);
+		cancelado.setStatus(StatusLancamento.CANCELADO);
+		entityManager.persist(cancelado);
+		Lancamento deOutroMes = criarLancamento();
+		deOutroMes.setUsuario(usuario);
+		deOutroMes.setMes(2);
+		entityManager.persist(deOutroMes);
+		entityManager.flush();
+
+		int atualizados = repository.atualizarStatusPorMes(usuario.getId(), 2019, 1,
+				StatusLancamento.origensPara(StatusLancamento.EFETIVADO), StatusLancamento.EFETIVADO);
+
+		Assertions.assertThat(atualizados).isEqualTo(1);
+		Assertions.assertThat(entityManager.find(Lancamento.class, pendente.getId()).getStatus())
+				.isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(entityManager.find(Lancamento.class, cancelado.getId()).getStatus())
+				.isEqualTo(StatusLancamento.CANCELADO);
+		Assertions.assertThat(entityManager.find(Lancamento.class, deOutroMes.getId()).getStatus())
+				.isEqualTo(StatusLancamento.PENDENTE);
+	}
+
 	public Lancamento criarLancamento() {
 		return Lancamento.builder().ano(2019).mes(1).descricao("qualquer").valor(BigDecimal.valueOf(10))
 				.tipo(TipoLancamento.RECEITA).status(StatusLancamento.PENDENTE).dataCadastro(LocalDate.now()).build();
@@ -0,0 +1,102 @@
+package com.giulia.model.repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoLancamento;
+
+// EXPLAIN (H2) das consultas mais frequentes: cada uma precisa usar o seu índice, e não
+// percorrer a tabela inteira. O SQL é o que o Hibernate gerou para o método do repositório
+// (CapturaSql), com os mesmos parâmetros. Os índices do H2 vêm das anotações @Index das
+// entidades, os do PostgreSQL das migrações (V3, V7 e V8), com os mesmos nomes.
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.giulia.model.repository.CapturaSql")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class PlanoConsultasTest {
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	Usuario usuario;
+
+	@Before
+	public void setUp() {
+		for (int i = 0; i < 20; i++) {
+			Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario " + i)
+					.email("usuario" + i + "@email.com").senha("123").build());
+			for (int j = 0; j < 10; j++) {
+				entityManager.persist(Lancamento.builder().descricao("lancamento " + j).mes(j % 12 + 1)
+						.ano(2015 + j % 5).valor(BigDecimal.TEN)
+						.tipo(j % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+						.status(StatusLancamento.PENDENTE).usuario(usuario).dataCadastro(LocalDate.now()).build());
+			}
+			this.usuario = usuario;
+		}
+		entityManager.flush();
+		CapturaSql.limpar();
+	}
+
+	@Test
+	public void deveBuscarUsuarioPorEmailPeloIndice() {
+		usuarioRepository.findByEmail("usuario3@email.com");
+
+		Assertions.assertThat(plano("usuario3@email.com")).containsIgnoringCase("idx_usuario_email");
+	}
+
+	@Test
+	public void deveVerificarExistenciaDeEmailPeloIndice() {
+		usuarioRepository.existsByEmail("usuario3@email.com");
+
+		// o Spring Data limita o exists a uma linha
+		Assertions.assertThat(plano("usuario3@email.com", 1)).containsIgnoringCase("idx_usuario_email");
+	}
+
+	@Test
+	public void deveBuscarLancamentosDoMesPeloIndice() {
+		lancamentoRepository.buscar(Lancamento.builder().usuario(usuario).ano(2016).mes(2).build());
+
+		Assertions.assertThat(plano(usuario.getId(), 2016, 2)).containsIgnoringCase("idx_lancamento_usuario_ano_mes");
+	}
+
+	// EXPLAIN do último SQL gerado, com os parâmetros na ordem dos ?
+	private String plano(Object... parametros) {
+		String sql = CapturaSql.ultimo();
+		return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(conexao -> {
+			try (PreparedStatement explain = conexao.prepareStatement("explain " + sql)) {
+				for (int i = 0; i < parametros.length; i++) {
+					explain.setObject(i + 1, parametros[i]);
+				}
+				try (ResultSet resultado = explain.executeQuery()) {
+					resultado.next();
+					return resultado.getString(1);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,47 @@
+package com.giulia.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.model.entity.SaldoMensal;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ActiveProfiles("test")
+public class SaldoMensalRepositoryTest {
+
+	@Autowired
+	SaldoMensalRepository repository;
+
+	@Autowired
+	TestEntityManager entityManager;
+
+	// a mesma consulta nativa roda no PostgreSQL; o H2 1.4.199 também tem funções de janela
+	@Test
+	public void deveObterRelatorioComSaldoAcumulado() {
+		entityManager.persist(new SaldoMensal(1l, 2019, 2, BigDecimal.valueOf(50), BigDecimal.valueOf(80)));
+		entityManager.persist(new SaldoMensal(1l, 2018, 12, BigDecimal.valueOf(100), BigDecimal.valueOf(30)));
+		entityManager.persist(new SaldoMensal(2l, 2019, 1, BigDecimal.valueOf(999), BigDecimal.ZERO));
+		entityManager.flush();
+
+		List<Object[]> linhas = repository.obterRelatorio(1l);
+
+		Assertions.assertThat(linhas).hasSize(2);
+		Assertions.assertThat(((Number) linhas.get(0)[0]).intValue()).isEqualTo(2018);
+		Assertions.assertThat((BigDecimal) linhas.get(0)[5]).isEqualByComparingTo("70");
+		Assertions.assertThat((BigDecimal) linhas.get(1)[4]).isEqualByComparingTo("-30");
+		Assertions.assertThat((BigDecimal) linhas.get(1)[5]).isEqualByComparingTo("40");
+	}
+}
@@ -0,0 +1,88 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.metricas.OrcamentoConsultas;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.cache.CacheSegundoNivel;
+import com.giulia.service.cache.CacheSegundoNivelConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class CacheSegundoNivelTest {
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	SaldoService saldoService;
+
+	@Autowired
+	MeterRegistry registry;
+
+	Usuario usuario;
+
+	@Before
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+	}
+
+	@Test
+	public void deveDesligarOCacheComVariasInstancias() {
+		CacheSegundoNivelConfig config = new CacheSegundoNivelConfig();
+		try {
+			Map<String, Object> propriedades = new HashMap<>();
+			config.cacheSegundoNivel(new MockEnvironment().withProperty("financas.cache.invalidacao.habilitada", "true"))
+					.customize(propriedades);
+
+			Assertions.assertThat(propriedades).containsEntry(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+					.containsEntry(AvailableSettings.USE_QUERY_CACHE, false);
+		} finally {
+			config.destroy();
+		}
+	}
+
+	@Test
+	public void deveInvalidarOSaldoGuardadoQuandoOUsuarioGanhaUmLancamento() {
+		salvarLancamento(BigDecimal.TEN);
+		Assertions.assertThat(saldoService.consultarSaldo(usuario.getId()).get()).isEqualByComparingTo("10");
+		OrcamentoConsultas.zerar();
+
+		Assertions.assertThat(saldoService.consultarSaldo(usuario.getId()).get()).isEqualByComparingTo("10");
+		OrcamentoConsultas.verificar(0);
+		Assertions.assertThat(registry.get("financas.cache.acertos").tag("regiao", CacheSegundoNivel.SALDO)
+				.gauge().value()).isGreaterThan(0);
+
+		salvarLancamento(BigDecimal.ONE);
+		Assertions.assertThat(saldoService.consultarSaldo(usuario.getId()).get()).isEqualByComparingTo("11");
+	}
+
+	private void salvarLancamento(BigDecimal valor) {
+		lancamentoService.salvar(Lancamento.builder().descricao("lancamento").mes(1).ano(2019).valor(valor)
+				.tipo(TipoLancamento.RECEITA).usuario(usuario).dataCadastro(LocalDate.now()).build());
+	}
+}
@@ -0,0 +1,245 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.SituacaoIngestaoDto;
+import com.giulia.exception.FilaCheiaException;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.ingestao.FilaIngestaoLancamento;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = { "financas.ingestao.habilitada=true",
+		"financas.ingestao.journal=target/ingestao/journal-contexto" })
+@AutoConfigureMockMvc
+public class FilaIngestaoLancamentoTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	FilaIngestaoLancamento fila;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	Usuario usuario;
+
+	@Before
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+	}
+
+	@Test
+	public void deveAceitarGravarEInformarASituacao() throws Exception {
+		MvcResult resultado = mvc.perform(MockMvcRequestBuilders.post("/api/lancamento/salvar")
+				.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(lancamento("10"))))
+				.andExpect(MockMvcResultMatchers.status().isAccepted())
+				.andExpect(MockMvcResultMatchers.jsonPath("situacao").value(SituacaoIngestaoDto.PENDENTE))
+				.andReturn();
+		String protocolo = objectMapper
+				.readValue(resultado.getResponse().getContentAsString(), SituacaoIngestaoDto.class).getProtocolo();
+		Assertions.assertThat(resultado.getResponse().getHeader("Location")).endsWith("/ingestao/" + protocolo);
+
+		SituacaoIngestaoDto situacao = aguardar(fila, protocolo);
+		Assertions.assertThat(situacao.getSituacao()).isEqualTo(SituacaoIngestaoDto.GRAVADO);
+		Assertions.assertThat(lancamentoService.obterPorId(situacao.getLancamento())).isPresent();
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("10");
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamento/ingestao/" + protocolo))
+				.andExpect(MockMvcResultMatchers.jsonPath("lancamento").value(situacao.getLancamento()));
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamento/ingestao/desconhecido"))
+				.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
+	@Test
+	public void deveRecusarNoControllerOLancamentoInvalido() throws Exception {
+		LancamentoDto invalido = lancamento("10");
+		invalido.setMes(13);
+		mvc.perform(MockMvcRequestBuilders.post("/api/lancamento/salvar").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(invalido)))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.jsonPath("$[0].codigo").value("MES_INVALIDO"));
+	}
+
+	@Test
+	public void deveRecusarQuandoAFilaEstaCheia() throws Exception {
+		// sem iniciar a thread gravadora: nada sai da fila
+		FilaIngestaoLancamento parada = nova(journal("cheia"), 2);
+		try {
+			parada.enfileirar(lancamento("1"));
+			parada.enfileirar(lancamento("2"));
+			Assertions.assertThatThrownBy(() -> parada.enfileirar(lancamento("3")))
+					.isInstanceOf(FilaCheiaException.class);
+			Assertions.assertThat(parada.tamanho()).isEqualTo(2);
+		} finally {
+			parada.encerrar();
+		}
+	}
+
+	@Test
+	public void deveGravarNaSubidaOQueFicouNoJournal() throws Exception {
+		Path arquivo = journal("queda");
+		// "queda" com dois lançamentos aceitos e não gravados
+		FilaIngestaoLancamento antes = nova(arquivo, 10);
+		String primeiro = antes.enfileirar(lancamento("3")).getProtocolo();
+		String segundo = antes.enfileirar(lancamento("4")).getProtocolo();
+		antes.encerrar();
+
+		FilaIngestaoLancamento depois = nova(arquivo, 10);
+		// a compactação troca o journal pelo temporário, que não fica para trás
+		Assertions.assertThat(arquivo.resolveSibling(arquivo.getFileName() + ".tmp")).doesNotExist();
+		try {
+			depois.iniciar();
+			Assertions.assertThat(aguardar(depois, primeiro).getSituacao()).isEqualTo(SituacaoIngestaoDto.GRAVADO);
+			Assertions.assertThat(aguardar(depois, segundo).getSituacao()).isEqualTo(SituacaoIngestaoDto.GRAVADO);
+		} finally {
+			depois.encerrar();
+		}
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("7");
+		// tudo gravado: o journal foi truncado e uma nova subida não grava de novo
+		Assertions.assertThat(Files.readAllLines(arquivo, StandardCharsets.UTF_8)).isEmpty();
+	}
+
+	@Test
+	public void deveTentarDeNovoQuandoOBancoFalha() throws Exception {
+		LancamentoService instavel = Mockito.mock(LancamentoService.class);
+		Mockito.doThrow(new DataAccessResourceFailureException("banco fora do ar")).doNothing().when(instavel)
+				.salvarEmLote(Mockito.anyList());
+		Mockito.when(instavel.salvar(Mockito.any())).thenThrow(new DataAccessResourceFailureException("banco fora do ar"));
+		FilaIngestaoLancamento fila = nova(instavel, journal("instavel"), 10);
+		try {
+			String protocolo = fila.enfileirar(lancamento("5")).getProtocolo();
+			fila.iniciar();
+			Assertions.assertThat(aguardar(fila, protocolo).getSituacao()).isEqualTo(SituacaoIngestaoDto.GRAVADO);
+			Mockito.verify(instavel, Mockito.times(2)).salvarEmLote(Mockito.anyList());
+		} finally {
+			fila.encerrar();
+		}
+	}
+
+	@Test
+	public void deveManterNoJournalOQueOBancoNaoGravou() throws Exception {
+		LancamentoService foraDoAr = Mockito.mock(LancamentoService.class);
+		Mockito.doThrow(new DataAccessResourceFailureException("banco fora do ar")).when(foraDoAr)
+				.salvarEmLote(Mockito.anyList());
+		Mockito.when(foraDoAr.salvar(Mockito.any())).thenThrow(new DataAccessResourceFailureException("banco fora do ar"));
+		Path arquivo = journal("fora-do-ar");
+		FilaIngestaoLancamento antes = nova(foraDoAr, arquivo, 10);
+		String protocolo = antes.enfileirar(lancamento("6")).getProtocolo();
+		antes.iniciar();
+		Mockito.verify(foraDoAr, Mockito.timeout(5000)).salvar(Mockito.any());
+		Assertions.assertThat(antes.obterSituacao(protocolo).get().getSituacao())
+				.isEqualTo(SituacaoIngestaoDto.PENDENTE);
+		antes.encerrar();
+
+		// com o banco de volta, a próxima subida grava o que ficou
+		FilaIngestaoLancamento depois = nova(arquivo, 10);
+		try {
+			depois.iniciar();
+			Assertions.assertThat(aguardar(depois, protocolo).getSituacao()).isEqualTo(SituacaoIngestaoDto.GRAVADO);
+		} finally {
+			depois.encerrar();
+		}
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("6");
+	}
+
+	@Test
+	public void deveConcluirComErroORejeitadoPelaRegraDeNegocio() throws Exception {
+		Path arquivo = journal("rejeitado");
+		FilaIngestaoLancamento fila = nova(arquivo, 10);
+		LancamentoDto semUsuario = lancamento("7");
+		semUsuario.setUsuario(Long.MAX_VALUE);
+		try {
+			String protocolo = fila.enfileirar(semUsuario).getProtocolo();
+			fila.iniciar();
+			Assertions.assertThat(aguardar(fila, protocolo).getSituacao()).isEqualTo(SituacaoIngestaoDto.ERRO);
+		} finally {
+			fila.encerrar();
+		}
+		Assertions.assertThat(Files.readAllLines(arquivo, StandardCharsets.UTF_8)).isEmpty();
+	}
+
+	@Test
+	public void deveIgnorarALinhaCortadaNoFimDoJournal() throws Exception {
+		Path arquivo = journal("cortada");
+		Files.write(arquivo, Collections.singletonList("{\"protocolo\":\"p1\",\"lancamento\":{\"descr"),
+				StandardCharsets.UTF_8);
+
+		FilaIngestaoLancamento recuperada = nova(arquivo, 10);
+		try {
+			Assertions.assertThat(recuperada.tamanho()).isZero();
+			Assertions.assertThat(recuperada.obterSituacao("p1")).isEqualTo(Optional.empty());
+		} finally {
+			recuperada.encerrar();
+		}
+	}
+
+	private FilaIngestaoLancamento nova(Path journal, int capacidade) {
+		return nova(lancamentoService, journal, capacidade);
+	}
+
+	private FilaIngestaoLancamento nova(LancamentoService lancamentoService, Path journal, int capacidade) {
+		return new FilaIngestaoLancamento(lancamentoService, usuarioService, objectMapper, new SimpleMeterRegistry(),
+				capacidade, 500, journal.toString(), true, 60, 1000, 10000);
+	}
+
+	private Path journal(String nome) throws Exception {
+		Path arquivo = Paths.get("target", "ingestao", nome + "-" + System.nanoTime());
+		Files.deleteIfExists(arquivo);
+		return arquivo;
+	}
+
+	private SituacaoIngestaoDto aguardar(FilaIngestaoLancamento fila, String protocolo) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			SituacaoIngestaoDto situacao = fila.obterSituacao(protocolo).get();
+			if (!SituacaoIngestaoDto.PENDENTE.equals(situacao.getSituacao())) {
+				return situacao;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("Lançamento " + protocolo + " não foi gravado");
+	}
+
+	private LancamentoDto lancamento(String valor) {
+		return LancamentoDto.builder().descricao("assíncrono").mes(1).ano(2019).valor(new BigDecimal(valor))
+				.tipo("RECEITA").usuario(usuario.getId()).build();
+	}
+}
@@ -0,0 +1,184 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.giulia.model.entity.EventoLancamento;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoEventoLancamento;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.EventoLancamentoRepository;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.model.repository.UsuarioRepository;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class HistoricoLancamentoServiceTest {
+
+	@Autowired
+	HistoricoLancamentoService historico;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	EventoLancamentoRepository eventoRepository;
+
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	TransactionTemplate transacao;
+
+	Usuario usuario;
+
+	@Before
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder().nome("usuario")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+	}
+
+	@Test
+	public void deveRegistrarUmEventoPorEscrita() {
+		Lancamento receita = salvar(BigDecimal.TEN, TipoLancamento.RECEITA);
+		receita.setValor(BigDecimal.valueOf(15));
+		lancamentoService.atualizar(receita);
+		lancamentoService.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+		// nada muda no mês: sem evento
+		lancamentoService.atualizarStatusDoMes(usuario.getId(), 2019, 1, StatusLancamento.EFETIVADO);
+		lancamentoService.deletar(lancamentoRepository.findById(receita.getId()).get());
+
+		List<EventoLancamento> eventos = eventos();
+		Assertions.assertThat(eventos).extracting(EventoLancamento::getEvento).containsExactly(
+				TipoEventoLancamento.CRIADO, TipoEventoLancamento.ALTERADO, TipoEventoLancamento.STATUS_ALTERADO,
+				TipoEventoLancamento.REMOVIDO);
+		Assertions.assertThat(eventos.stream().map(EventoLancamento::getReceitas).collect(Collectors.toList()))
+				.usingElementComparator(BigDecimal::compareTo)
+				.containsExactly(BigDecimal.TEN, BigDecimal.valueOf(5), BigDecimal.ZERO, BigDecimal.valueOf(-15));
+	}
+
+	@Test
+	public void deveMoverOHistoricoQuandoOLancamentoTrocaDeUsuario() {
+		Usuario outro = usuarioRepository.save(Usuario.builder().nome("outro")
+				.email(System.nanoTime() + "@email.com").senha("123").build());
+		Lancamento lancamento = salvar(BigDecimal.TEN, TipoLancamento.RECEITA);
+		lancamento.setUsuario(outro);
+		lancamento.setValor(BigDecimal.valueOf(15));
+		lancamentoService.atualizar(lancamento);
+
+		Assertions.assertThat(eventos()).extracting(EventoLancamento::getEvento)
+				.containsExactly(TipoEventoLancamento.CRIADO, TipoEventoLancamento.REMOVIDO);
+		Assertions.assertThat(historico.obterSaldoEm(usuario.getId(), LocalDateTime.now()))
+				.isEqualByComparingTo(lancamentoService.obterSaldoPorUsuario(usuario.getId()))
+				.isEqualByComparingTo("0");
+		Assertions.assertThat(historico.obterSaldoEm(outro.getId(), LocalDateTime.now()))
+				.isEqualByComparingTo(lancamentoService.obterSaldoPorUsuario(outro.getId()))
+				.isEqualByComparingTo("15");
+		// o histórico de cada um refaz o estado atual sem correções
+		Assertions.assertThat(historico.reprocessar(usuario.getId())).isZero();
+		Assertions.assertThat(historico.reprocessar(outro.getId())).isZero();
+	}
+
+	@Test
+	public void deveObterOSaldoComoEstavaNaData() throws InterruptedException {
+		salvar(BigDecimal.TEN, TipoLancamento.RECEITA);
+		LocalDateTime antes = depoisDoUltimoEvento();
+		salvar(BigDecimal.valueOf(3), TipoLancamento.DESPESA);
+
+		Assertions.assertThat(historico.obterSaldoEm(usuario.getId(), antes)).isEqualByComparingTo("10");
+		Assertions.assertThat(historico.obterSaldoEm(usuario.getId(), LocalDateTime.now())).isEqualByComparingTo("7");
+		Assertions.assertThat(historico.obterSaldoEm(usuario.getId(), antes.minusYears(1))).isEqualByComparingTo("0");
+	}
+
+	@Test
+	public void deveSomarOInstantaneoEOsEventosSeguintes() throws InterruptedException {
+		salvar(BigDecimal.TEN, TipoLancamento.RECEITA);
+		salvar(BigDecimal.ONE, TipoLancamento.DESPESA);
+		LocalDateTime ate = depoisDoUltimoEvento();
+
+		Assertions.assertThat(historico.obterUsuariosSemInstantaneo(ate)).contains(usuario.getId());
+		Assertions.assertThat(historico.gerarInstantaneo(usuario.getId(), ate).getSaldo()).isEqualByComparingTo("9");
+		Assertions.assertThat(historico.obterUsuariosSemInstantaneo(ate)).doesNotContain(usuario.getId());
+
+		salvar(BigDecimal.valueOf(2), TipoLancamento.DESPESA);
+		// o próximo corte só olha os eventos depois do anterior, e o novo está entre eles
+		Assertions.assertThat(historico.obterUsuariosSemInstantaneo(depoisDoUltimoEvento())).contains(usuario.getId());
+
+		Assertions.assertThat(historico.obterSaldoEm(usuario.getId(), LocalDateTime.now()))
+				.isEqualByComparingTo(lancamentoService.obterSaldoPorUsuario(usuario.getId()))
+				.isEqualByComparingTo("7");
+	}
+
+	@Test
+	public void deveRefazerOsLancamentosAPartirDoHistorico() {
+		Lancamento alterado = salvar(BigDecimal.TEN, TipoLancamento.RECEITA);
+		Lancamento apagado = salvar(BigDecimal.ONE, TipoLancamento.DESPESA);
+		Lancamento intacto = salvar(BigDecimal.valueOf(2), TipoLancamento.RECEITA);
+		lancamentoService.atualizarStatus(usuario.getId(), Arrays.asList(intacto.getId()),
+				StatusLancamento.EFETIVADO);
+
+		// escritas por fora do serviço: sem evento
+		Lancamento banco = lancamentoRepository.findById(alterado.getId()).get();
+		banco.setValor(BigDecimal.valueOf(100));
+		lancamentoRepository.save(banco);
+		lancamentoRepository.deleteById(apagado.getId());
+		Lancamento sobra = lancamentoRepository.save(Lancamento.builder().descricao("sobra").mes(1).ano(2019)
+				.valor(BigDecimal.ONE).tipo(TipoLancamento.RECEITA).status(StatusLancamento.PENDENTE)
+				.usuario(usuario).dataCadastro(LocalDate.now()).build());
+
+		Assertions.assertThat(historico.reprocessar(usuario.getId())).isEqualTo(3);
+
+		Assertions.assertThat(lancamentoRepository.findById(alterado.getId()).get().getValor())
+				.isEqualByComparingTo("10");
+		Assertions.assertThat(lancamentoRepository.findById(apagado.getId())).isPresent();
+		Assertions.assertThat(lancamentoRepository.findById(sobra.getId())).isNotPresent();
+		Assertions.assertThat(lancamentoRepository.findById(intacto.getId()).get().getStatus())
+				.isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("11");
+		Assertions.assertThat(historico.reprocessar(usuario.getId())).isZero();
+	}
+
+	private Lancamento salvar(BigDecimal valor, TipoLancamento tipo) {
+		return lancamentoService.salvar(Lancamento.builder().descricao("lancamento").mes(1).ano(2019).valor(valor)
+				.tipo(tipo).usuario(usuario).dataCadastro(LocalDate.now()).build());
+	}
+
+	// consulta com Stream só roda dentro de uma transação
+	private List<EventoLancamento> eventos() {
+		return transacao.execute(status -> {
+			try (Stream<EventoLancamento> eventos = eventoRepository
+					.findByIdUsuarioOrderByDataHoraAscIdAsc(usuario.getId())) {
+				return eventos.collect(Collectors.toList());
+			}
+		});
+	}
+
+	// um instante que separa os eventos já gravados dos próximos
+	private LocalDateTime depoisDoUltimoEvento() throws InterruptedException {
+		Thread.sleep(5);
+		LocalDateTime instante = LocalDateTime.now();
+		Thread.sleep(5);
+		return instante;
+	}
+}
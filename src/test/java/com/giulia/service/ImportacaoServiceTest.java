@@ -0,0 +1,129 @@
+package com.giulia.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giulia.dto.ErroImportacaoDto;
+import com.giulia.dto.ErroValidacaoDto;
+import com.giulia.dto.ResultadoImportacaoDto;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.exception.ValidacaoLancamentoException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.impl.ImportacaoServiceImp;
+import com.giulia.service.validacao.ValidadorLancamento;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class ImportacaoServiceTest {
+
+	@MockBean
+	LancamentoService lancamentoService;
+
+	@MockBean
+	UsuarioService usuarioService;
+
+	ImportacaoServiceImp service;
+
+	// cópia do que foi gravado (a lista do lote é reaproveitada depois de cada gravação)
+	List<Lancamento> gravados = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		service = new ImportacaoServiceImp(lancamentoService, usuarioService, new ObjectMapper(), 2);
+		Mockito.when(usuarioService.obterPorId(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+		Mockito.doAnswer(invocation -> {
+			List<Lancamento> lote = invocation.getArgument(0);
+			gravados.addAll(lote);
+			return null;
+		}).when(lancamentoService).salvarEmLote(Mockito.anyList());
+	}
+
+	@Test
+	public void deveImportarJsonEmLotes() throws Exception {
+		String json = "[" + lancamentoJson("Mercado", 1) + "," + lancamentoJson("Aluguel", 2) + ","
+				+ lancamentoJson("Energia", 3) + "]";
+
+		ResultadoImportacaoDto resultado = service.importarJson(entrada(json));
+
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(3);
+		Assertions.assertThat(resultado.getErros()).isEmpty();
+		Assertions.assertThat(gravados).extracting(Lancamento::getDescricao).containsExactly("Mercado", "Aluguel",
+				"Energia");
+		Mockito.verify(lancamentoService, Mockito.times(2)).salvarEmLote(Mockito.anyList());
+		Mockito.verify(usuarioService, Mockito.times(1)).obterPorId(1l); // uma consulta por usuário
+	}
+
+	@Test
+	public void deveRelatarErrosPorLinhaSemInterromperAImportacao() throws Exception {
+		Mockito.doAnswer(invocacao -> {
+			throw new ValidacaoLancamentoException(ValidadorLancamento.verificar(invocacao.getArgument(0)));
+		}).when(lancamentoService)
+				.validar(Mockito.argThat(lancamento -> lancamento.getMes() == null || lancamento.getTipo() == null));
+		String json = "[" + lancamentoJson("Mercado", 1) + ",{\"descricao\":\"Sem mês\",\"ano\":2019,"
+				+ "\"valor\":10,\"tipo\":\"DESPESA\",\"usuario\":1}," + "{\"descricao\":\"Tipo errado\",\"mes\":1,"
+				+ "\"ano\":2019,\"valor\":10,\"tipo\":\"XYZ\",\"usuario\":1}," + lancamentoJson("Energia", 3) + "]";
+
+		ResultadoImportacaoDto resultado = service.importarJson(entrada(json));
+
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(2);
+		Assertions.assertThat(resultado.getRejeitados()).isEqualTo(2);
+		Assertions.assertThat(resultado.getErros()).containsExactly(
+				new ErroImportacaoDto(2, "Informe um Mês válido",
+						Collections.singletonList(new ErroValidacaoDto("MES_INVALIDO", "mes", "Informe um Mês válido"))),
+				new ErroImportacaoDto(3, "Informe um Tipo válido", Collections
+						.singletonList(new ErroValidacaoDto("TIPO_INVALIDO", "tipo", "Informe um Tipo válido"))));
+	}
+
+	@Test
+	public void deveImportarCsvComSeparadorPontoEVirgula() throws Exception {
+		String csv = "descricao;mes;ano;valor;tipo;usuario\n" + "\"Mercado; feira\";1;2019;1.234,56;DESPESA;1\n"
+				+ "Salário;1;2019;5000;RECEITA;1\n";
+
+		ResultadoImportacaoDto resultado = service.importarCsv(entrada(csv));
+
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(2);
+		Lancamento mercado = gravados.get(0);
+		Assertions.assertThat(mercado.getDescricao()).isEqualTo("Mercado; feira");
+		Assertions.assertThat(mercado.getValor()).isEqualByComparingTo(new BigDecimal("1234.56"));
+		Assertions.assertThat(mercado.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+		Assertions.assertThat(mercado.getUsuario().getId()).isEqualTo(1l);
+	}
+
+	@Test
+	public void deveRejeitarCsvSemColunaObrigatoria() {
+		String csv = "descricao,mes,ano,valor\nMercado,1,2019,10\n";
+
+		Throwable erro = Assertions.catchThrowable(() -> service.importarCsv(entrada(csv)));
+
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+				.hasMessage("Coluna obrigatória ausente no CSV: tipo");
+		Mockito.verify(lancamentoService, Mockito.never()).salvarEmLote(Mockito.anyList());
+	}
+
+	private static String lancamentoJson(String descricao, int mes) {
+		return "{\"descricao\":\"" + descricao + "\",\"mes\":" + mes
+				+ ",\"ano\":2019,\"valor\":10,\"tipo\":\"DESPESA\",\"usuario\":1}";
+	}
+
+	private static InputStream entrada(String conteudo) {
+		return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+	}
+}
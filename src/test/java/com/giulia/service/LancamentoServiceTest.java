@@ -3,6 +3,9 @@ package com.giulia.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,9 +16,15 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.data.domain.Example;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.dto.ParcelaSaldoDto;
 import com.giulia.exception.RegraNegocioException;
 import com.giulia.model.entity.Lancamento;
 import com.giulia.model.entity.Usuario;
@@ -26,6 +35,7 @@ import com.giulia.service.impl.LancamentoServiceImp;
 
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
+@Import(RoteamentoLeitura.class)
 public class LancamentoServiceTest {
 
 	@SpyBean
@@ -34,6 +44,12 @@ public class LancamentoServiceTest {
 	@MockBean // cria instância mockada
 	LancamentoRepository repository;
 
+	@MockBean
+	SaldoService saldoService;
+
+	@MockBean
+	HistoricoLancamentoService historico;
+
 	@Test
 	public void deveSalvarUmLancamento() {
 		// cenario
@@ -49,6 +65,7 @@ public class LancamentoServiceTest {
 
 		Assertions.assertThat(salvo.getId()).isEqualTo(lancamentoSalvo.getId());
 		Assertions.assertThat(salvo.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+		Mockito.verify(historico).registrarCriados(Collections.singletonList(lancamentoSalvo));
 
 	}
 
@@ -107,29 +124,155 @@ public class LancamentoServiceTest {
 		Lancamento lancamento = criarLancamento();
 		lancamento.setId(1l);
 
-		List<Lancamento> lista = new ArrayList<Lancamento>();
-		lista.add(lancamento);
-		Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+		List<LancamentoDto> lista = new ArrayList<LancamentoDto>();
+		lista.add(LancamentoDto.de(lancamento));
+		Mockito.when(repository.buscar(lancamento)).thenReturn(lista);
 
-		List<Lancamento> resultado = service.buscar(lancamento);
+		List<LancamentoDto> resultado = service.buscar(lancamento);
 
-		Assertions.assertThat(resultado).isNotEmpty().hasSize(1).contains(lancamento);
+		Assertions.assertThat(resultado).isNotEmpty().hasSize(1).isEqualTo(lista);
+		Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Example.class));
 
 	}
 
+	@Test
+	public void deveRetornarCursorQuandoHouverProximaPagina() {
+		List<LancamentoDto> lista = new ArrayList<LancamentoDto>();
+		for (long id = 1; id <= 3; id++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setId(id);
+			lista.add(LancamentoDto.de(lancamento));
+		}
+		Lancamento filtro = criarLancamento();
+		Mockito.when(repository.buscarPagina(filtro, null, 3)).thenReturn(lista);
+
+		PaginaLancamentoDto pagina = service.buscarPagina(filtro, null, 2);
+
+		Assertions.assertThat(pagina.getLancamentos()).hasSize(2);
+		Assertions.assertThat(pagina.getProximoCursor()).isEqualTo(2l);
+	}
+
+	@Test
+	public void naoDeveRetornarCursorNaUltimaPagina() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		Lancamento filtro = criarLancamento();
+		Mockito.when(repository.buscarPagina(filtro, 1l, 3))
+				.thenReturn(Collections.singletonList(LancamentoDto.de(lancamento)));
+
+		PaginaLancamentoDto pagina = service.buscarPagina(filtro, 1l, 2);
+
+		Assertions.assertThat(pagina.getLancamentos()).hasSize(1);
+		Assertions.assertThat(pagina.getProximoCursor()).isNull();
+	}
+
 	@Test
 	public void deveAtualizarStatus() {
 		Lancamento lancamento = criarLancamento();
 		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
 		lancamento.setStatus(StatusLancamento.PENDENTE);
 
 		StatusLancamento status = StatusLancamento.EFETIVADO;
-		Mockito.doReturn(lancamento).when(service).atualizar(lancamento);
+		Mockito.when(repository.atualizarStatus(1l, 2019, StatusLancamento.PENDENTE, status)).thenReturn(1);
 
 		service.atualizarStatus(lancamento, status);
 
 		Assertions.assertThat(lancamento.getStatus()).isEqualTo(status);
-		Mockito.verify(service).atualizar(lancamento);
+		Mockito.verify(service, Mockito.never()).atualizar(lancamento); // um update só do status
+	}
+
+	@Test
+	public void naoDeveAtualizarStatusAlteradoPorOutraOperacao() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.obterStatus(1l, 2019)).thenReturn(Optional.of(StatusLancamento.CANCELADO));
+
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+				.hasMessage("Não é possível mudar o status de CANCELADO para EFETIVADO");
+		Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+
+	@Test
+	public void deveTentarDeNovoQuandoOutraOperacaoMudouOStatus() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		lancamento.setVersao(0l);
+		Mockito.when(repository.obterStatus(1l, 2019)).thenReturn(Optional.of(StatusLancamento.EFETIVADO));
+		Mockito.when(repository.atualizarStatus(1l, 2019, StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO))
+				.thenReturn(1);
+
+		service.atualizarStatus(lancamento, StatusLancamento.CANCELADO);
+
+		Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+		Assertions.assertThat(lancamento.getVersao()).isEqualTo(1l);
+		Mockito.verify(repository, Mockito.times(2)).atualizarStatus(Mockito.anyLong(), Mockito.anyInt(),
+				Mockito.any(), Mockito.eq(StatusLancamento.CANCELADO));
+	}
+
+	@Test
+	public void deveAcusarConflitoQuandoOLancamentoSaiuDoAno() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+		Assertions.assertThat(erro).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+		Assertions.assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+
+	@Test
+	public void deveDesistirDoStatusDepoisDasTentativas() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.obterStatus(1l, 2019)).thenReturn(Optional.of(StatusLancamento.PENDENTE));
+
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+		Assertions.assertThat(erro).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+		Mockito.verify(repository, Mockito.times(3)).atualizarStatus(1l, 2019, StatusLancamento.PENDENTE,
+				StatusLancamento.EFETIVADO);
+	}
+
+	@Test
+	public void naoDeveAtualizarStatusDeLancamentoCancelado() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setStatus(StatusLancamento.CANCELADO);
+
+		Throwable erro = Assertions.catchThrowable(() -> service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO));
+
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+				.hasMessage("Não é possível mudar o status de CANCELADO para EFETIVADO");
+		Mockito.verify(service, Mockito.never()).atualizar(lancamento);
+	}
+
+	@Test
+	public void deveEfetivarOMesApenasAPartirDePendentes() {
+		Mockito.when(repository.atualizarStatusPorMes(1l, 2019, 1, EnumSet.of(StatusLancamento.PENDENTE),
+				StatusLancamento.EFETIVADO)).thenReturn(3);
+
+		int atualizados = service.atualizarStatusDoMes(1l, 2019, 1, StatusLancamento.EFETIVADO);
+
+		Assertions.assertThat(atualizados).isEqualTo(3);
+		Mockito.verifyZeroInteractions(saldoService);
+	}
+
+	@Test
+	public void naoDeveAtualizarEmLoteParaPendente() {
+		Throwable erro = Assertions.catchThrowable(
+				() -> service.atualizarStatus(1l, Arrays.asList(1l, 2l), StatusLancamento.PENDENTE));
+
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class)
+				.hasMessage("Nenhum lançamento pode ir para o status PENDENTE");
+		Mockito.verify(repository, Mockito.never()).atualizarStatusPorIds(Mockito.any(), Mockito.any(),
+				Mockito.any(), Mockito.any());
 	}
 
 	@Test
@@ -184,6 +327,76 @@ public class LancamentoServiceTest {
 		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um Tipo válido");
 	}
 
+	@Test
+	public void deveAtualizarSaldoAoSalvarUmLancamento() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.salvar(lancamento);
+
+		Mockito.verify(saldoService).somar(ParcelaSaldoDto.de(lancamento));
+	}
+
+	@Test
+	public void deveTrocarParcelaDoSaldoAoAtualizarValor() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		ParcelaSaldoDto anterior = new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.valueOf(5));
+		Mockito.doNothing().when(service).validar(lancamento);
+		Mockito.when(repository.obterParcelaSaldo(1l)).thenReturn(Optional.of(anterior));
+		Mockito.when(repository.save(lancamento)).thenReturn(lancamento);
+
+		service.atualizar(lancamento);
+
+		Mockito.verify(saldoService).subtrair(anterior);
+		Mockito.verify(saldoService).somar(ParcelaSaldoDto.de(lancamento));
+	}
+
+	@Test
+	public void naoDeveMexerNoSaldoAoAtualizarApenasStatus() {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setId(1l);
+		lancamento.setUsuario(Usuario.builder().id(1l).build());
+		Mockito.when(repository.atualizarStatus(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+				.thenReturn(1);
+
+		service.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+
+		Mockito.verifyZeroInteractions(saldoService);
+	}
+
+	@Test
+	public void deveSalvarEmLoteSomandoOSaldoPorMes() {
+		Usuario usuario = Usuario.builder().id(1l).build();
+		List<Lancamento> lote = new ArrayList<Lancamento>();
+		for (int i = 0; i < 3; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			lancamento.setStatus(null);
+			lote.add(lancamento);
+		}
+
+		service.salvarEmLote(lote);
+
+		Mockito.verify(repository).inserirEmLote(lote);
+		Mockito.verify(saldoService)
+				.somar(new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.valueOf(30)));
+		Assertions.assertThat(lote).extracting(Lancamento::getStatus).containsOnly(StatusLancamento.PENDENTE);
+	}
+
+	@Test
+	public void deveObterSaldoMaterializado() {
+		Mockito.when(saldoService.obterSaldo(1l)).thenReturn(BigDecimal.TEN);
+
+		BigDecimal saldo = service.obterSaldoPorUsuario(1l);
+
+		Assertions.assertThat(saldo).isEqualTo(BigDecimal.TEN);
+		Mockito.verifyZeroInteractions(repository);
+	}
+
 	public Lancamento criarLancamento() {
 		return Lancamento.builder().ano(2019).mes(1).descricao("qualquer").valor(BigDecimal.valueOf(10))
 				.tipo(TipoLancamento.RECEITA).status(StatusLancamento.PENDENTE).dataCadastro(LocalDate.now()).build();
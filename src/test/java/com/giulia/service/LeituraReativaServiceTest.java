@@ -0,0 +1,65 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.dto.PaginaLancamentoDto;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.service.impl.LeituraReativaServiceImp;
+
+import reactor.test.StepVerifier;
+
+public class LeituraReativaServiceTest {
+
+	LancamentoService lancamentoService = Mockito.mock(LancamentoService.class);
+	UsuarioService usuarioService = Mockito.mock(UsuarioService.class);
+	LeituraReativaServiceImp service = new LeituraReativaServiceImp(lancamentoService, usuarioService, 2, 1);
+
+	Lancamento filtro = Lancamento.builder().build();
+
+	@After
+	public void encerrar() {
+		service.encerrar();
+	}
+
+	@Test
+	public void deveLerAProximaPaginaSoQuandoOAssinantePede() {
+		Mockito.when(lancamentoService.buscarPagina(filtro, null, 2))
+				.thenReturn(new PaginaLancamentoDto(Arrays.asList(lancamento(1l), lancamento(2l)), 2l));
+		Mockito.when(lancamentoService.buscarPagina(filtro, 2l, 2))
+				.thenReturn(new PaginaLancamentoDto(Collections.singletonList(lancamento(3l)), null));
+
+		StepVerifier.create(service.buscar(filtro).map(LancamentoDto::getId), 1)
+				.expectNext(1l)
+				.then(() -> Mockito.verify(lancamentoService, Mockito.never()).buscarPagina(filtro, 2l, 2))
+				.thenRequest(2)
+				.expectNext(2l, 3l)
+				.verifyComplete();
+
+		Mockito.verify(lancamentoService, Mockito.times(2)).buscarPagina(Mockito.eq(filtro), Mockito.any(),
+				Mockito.eq(2));
+	}
+
+	@Test
+	public void deveObterOSaldoApenasDeUsuarioExistente() {
+		Mockito.when(usuarioService.obterPorId(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+		Mockito.when(usuarioService.obterPorId(2l)).thenReturn(Optional.empty());
+		Mockito.when(lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+
+		StepVerifier.create(service.obterSaldo(1l)).expectNext(BigDecimal.TEN).verifyComplete();
+		StepVerifier.create(service.obterSaldo(2l)).verifyComplete();
+		Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(2l);
+	}
+
+	private LancamentoDto lancamento(Long id) {
+		return LancamentoDto.builder().id(id).build();
+	}
+}
@@ -0,0 +1,119 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.dto.LancamentoDto;
+import com.giulia.exception.RegraNegocioException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.ChaveIdempotenciaRepository;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.idempotencia.RegistroIdempotencia;
+import com.giulia.service.idempotencia.RegistroIdempotenciaBanco;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "financas.idempotencia.armazenamento=banco")
+public class RegistroIdempotenciaBancoTest {
+
+	@Autowired
+	RegistroIdempotencia registro;
+
+	@Autowired
+	ChaveIdempotenciaRepository repository;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Test
+	public void deveExecutarUmaUnicaVezComAMesmaChave() throws Exception {
+		Assertions.assertThat(registro).isInstanceOf(RegistroIdempotenciaBanco.class);
+		Usuario usuario = criarUsuario();
+		AtomicInteger execucoes = new AtomicInteger();
+		int requisicoes = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(requisicoes);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<LancamentoDto>> respostas = new ArrayList<>();
+		try {
+			for (int i = 0; i < requisicoes; i++) {
+				respostas.add(executor.submit(() -> {
+					largada.await();
+					return registro.executar("banco-1", () -> {
+						execucoes.incrementAndGet();
+						return LancamentoDto.de(lancamentoService.salvar(criarLancamento(usuario)));
+					});
+				}));
+			}
+			largada.countDown();
+
+			for (Future<LancamentoDto> resposta : respostas) {
+				Assertions.assertThat(resposta.get(30, TimeUnit.SECONDS).getId())
+						.isEqualTo(respostas.get(0).get().getId());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		Assertions.assertThat(execucoes.get()).isEqualTo(1);
+		Assertions.assertThat(repository.findById("banco-1").get().getIdLancamento())
+				.isEqualTo(respostas.get(0).get().getId());
+	}
+
+	@Test
+	public void deveLiberarAChaveQuandoAOperacaoFalha() {
+		Usuario usuario = criarUsuario();
+
+		Throwable erro = Assertions.catchThrowable(() -> registro.executar("banco-2", () -> {
+			throw new RegraNegocioException("Informe um Valor válido");
+		}));
+		LancamentoDto salvo = registro.executar("banco-2",
+				() -> LancamentoDto.de(lancamentoService.salvar(criarLancamento(usuario))));
+
+		Assertions.assertThat(erro).isInstanceOf(RegraNegocioException.class);
+		Assertions.assertThat(salvo.getId()).isNotNull();
+	}
+
+	@Test
+	public void deveAssumirAReservaAbandonada() {
+		Usuario usuario = criarUsuario();
+		// nó que reservou a chave e caiu antes de concluir
+		repository.reservar("banco-3", "no-que-caiu", LocalDateTime.now().minusMinutes(1));
+
+		LancamentoDto salvo = registro.executar("banco-3",
+				() -> LancamentoDto.de(lancamentoService.salvar(criarLancamento(usuario))));
+
+		Assertions.assertThat(salvo.getId()).isNotNull();
+		Assertions.assertThat(repository.findById("banco-3").get().getIdLancamento()).isEqualTo(salvo.getId());
+	}
+
+	private Usuario criarUsuario() {
+		return usuarioRepository.save(
+				Usuario.builder().nome("usuario").email(System.nanoTime() + "@email.com").senha("123").build());
+	}
+
+	private Lancamento criarLancamento(Usuario usuario) {
+		return Lancamento.builder().descricao("idempotente").mes(1).ano(2019).valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.DESPESA).usuario(usuario).dataCadastro(LocalDate.now()).build();
+	}
+}
@@ -0,0 +1,173 @@
+package com.giulia.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.dto.ParcelaSaldoDto;
+import com.giulia.dto.RelatorioMensalDto;
+import com.giulia.model.entity.SaldoMensal;
+import com.giulia.model.entity.SaldoUsuario;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.model.repository.LancamentoRepository;
+import com.giulia.model.repository.SaldoMensalRepository;
+import com.giulia.model.repository.SaldoUsuarioRepository;
+import com.giulia.service.impl.SaldoServiceImp;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@Import(RoteamentoLeitura.class)
+public class SaldoServiceTest {
+
+	@SpyBean
+	SaldoServiceImp service;
+
+	@MockBean
+	SaldoUsuarioRepository saldoUsuarioRepository;
+
+	@MockBean
+	SaldoMensalRepository saldoMensalRepository;
+
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+
+	@After
+	public void tearDown() {
+		// o spy é o mesmo em todos os testes: volta ao banco dos testes (H2)
+		ReflectionTestUtils.setField(service, "postgresql", false);
+	}
+
+	@Test
+	public void deveSomarReceitaNoSaldoExistente() {
+		Mockito.when(saldoUsuarioRepository.somar(1l, BigDecimal.TEN, BigDecimal.ZERO)).thenReturn(1);
+		Mockito.when(saldoMensalRepository.somar(1l, 2019, 1, BigDecimal.TEN, BigDecimal.ZERO)).thenReturn(1);
+
+		service.somar(new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.TEN));
+
+		Mockito.verify(saldoUsuarioRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+		Mockito.verify(saldoMensalRepository, Mockito.never()).save(Mockito.any(SaldoMensal.class));
+	}
+
+	@Test
+	public void deveCriarSaldoNoPrimeiroLancamento() {
+		// somar retorna 0 linhas atualizadas: ainda não existe saldo para o usuário
+		service.somar(new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.DESPESA, BigDecimal.TEN));
+
+		Mockito.verify(saldoUsuarioRepository).save(new SaldoUsuario(1l, BigDecimal.ZERO, BigDecimal.TEN));
+		Mockito.verify(saldoMensalRepository).save(new SaldoMensal(1l, 2019, 1, BigDecimal.ZERO, BigDecimal.TEN));
+	}
+
+	@Test
+	public void deveCriarOuIncrementarNumSoStatementNoPostgreSQL() {
+		ReflectionTestUtils.setField(service, "postgresql", true);
+
+		service.somar(new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.TEN));
+
+		Mockito.verify(saldoUsuarioRepository).acumular(1l, BigDecimal.TEN, BigDecimal.ZERO);
+		Mockito.verify(saldoMensalRepository).acumular(1l, 2019, 1, BigDecimal.TEN, BigDecimal.ZERO);
+		Mockito.verify(saldoUsuarioRepository, Mockito.never()).somar(Mockito.anyLong(), Mockito.any(), Mockito.any());
+		Mockito.verify(saldoUsuarioRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+
+	@Test
+	public void deveObterSaldoPelaChavePrimaria() {
+		SaldoUsuario saldo = new SaldoUsuario(1l, BigDecimal.valueOf(100), BigDecimal.valueOf(40));
+		Mockito.when(saldoUsuarioRepository.findById(1l)).thenReturn(Optional.of(saldo));
+
+		BigDecimal resultado = service.obterSaldo(1l);
+
+		Assertions.assertThat(resultado).isEqualByComparingTo(BigDecimal.valueOf(60));
+		Mockito.verify(lancamentoRepository, Mockito.never()).obterParcelasSaldoPorUsuario(1l);
+	}
+
+	@Test
+	public void deveReconstruirSaldoAPartirDosLancamentos() {
+		Mockito.when(lancamentoRepository.obterParcelasSaldoPorUsuario(1l)).thenReturn(Arrays.asList(
+				new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.valueOf(100)),
+				new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.DESPESA, BigDecimal.valueOf(30)),
+				new ParcelaSaldoDto(1l, 2019, 2, TipoLancamento.DESPESA, BigDecimal.valueOf(20))));
+		Mockito.when(saldoUsuarioRepository.save(Mockito.any(SaldoUsuario.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		BigDecimal resultado = service.obterSaldo(1l);
+
+		Assertions.assertThat(resultado).isEqualByComparingTo(BigDecimal.valueOf(50));
+		Mockito.verify(saldoMensalRepository, Mockito.times(2)).save(Mockito.any(SaldoMensal.class));
+	}
+
+	@Test
+	public void deveDetectarDivergenciaNoSaldoGravado() {
+		Mockito.when(saldoUsuarioRepository.bloquear(1l))
+				.thenReturn(Optional.of(new SaldoUsuario(1l, BigDecimal.valueOf(999), BigDecimal.ZERO)));
+		Mockito.when(saldoMensalRepository.findByIdUsuario(1l)).thenReturn(Collections.emptyList());
+		Mockito.when(lancamentoRepository.obterParcelasSaldoPorUsuario(1l)).thenReturn(Collections.singletonList(
+				new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.valueOf(100))));
+
+		boolean divergente = service.verificar(1l);
+
+		Assertions.assertThat(divergente).isTrue();
+		// a linha do saldo é bloqueada antes de somar os lançamentos
+		InOrder ordem = Mockito.inOrder(saldoUsuarioRepository, lancamentoRepository);
+		ordem.verify(saldoUsuarioRepository).bloquear(1l);
+		ordem.verify(lancamentoRepository).obterParcelasSaldoPorUsuario(1l);
+		Mockito.verify(saldoUsuarioRepository)
+				.save(new SaldoUsuario(1l, BigDecimal.valueOf(100), BigDecimal.ZERO));
+	}
+
+	@Test
+	public void naoDeveApontarDivergenciaQuandoSaldoConfere() {
+		Mockito.when(saldoUsuarioRepository.bloquear(1l))
+				.thenReturn(Optional.of(new SaldoUsuario(1l, new BigDecimal("100.00"), BigDecimal.ZERO)));
+		Mockito.when(saldoMensalRepository.findByIdUsuario(1l)).thenReturn(Collections.singletonList(
+				new SaldoMensal(1l, 2019, 1, new BigDecimal("100.00"), BigDecimal.ZERO)));
+		Mockito.when(lancamentoRepository.obterParcelasSaldoPorUsuario(1l)).thenReturn(Collections.singletonList(
+				new ParcelaSaldoDto(1l, 2019, 1, TipoLancamento.RECEITA, BigDecimal.valueOf(100))));
+
+		Assertions.assertThat(service.verificar(1l)).isFalse();
+		Mockito.verify(saldoUsuarioRepository, Mockito.never()).save(Mockito.any(SaldoUsuario.class));
+	}
+
+	@Test
+	public void deveUsarOAcumuladoDoBancoNoPostgreSQL() {
+		ReflectionTestUtils.setField(service, "postgresql", true);
+		Mockito.when(saldoMensalRepository.obterRelatorio(1l)).thenReturn(Collections.singletonList(new Object[] {
+				2019, 1, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.valueOf(9), BigDecimal.valueOf(9) }));
+
+		List<RelatorioMensalDto> relatorio = service.obterRelatorio(1l, null);
+
+		Assertions.assertThat(relatorio).extracting(RelatorioMensalDto::getAcumulado)
+				.containsExactly(BigDecimal.valueOf(9));
+		Mockito.verify(saldoMensalRepository, Mockito.never()).findByIdUsuarioOrderByAnoAscMesAsc(1l);
+	}
+
+	@Test
+	public void deveAcumularORelatorioDesdeOsAnosAnteriores() {
+		Mockito.when(saldoMensalRepository.findByIdUsuarioOrderByAnoAscMesAsc(1l)).thenReturn(Arrays.asList(
+				new SaldoMensal(1l, 2018, 12, BigDecimal.valueOf(100), BigDecimal.valueOf(30)),
+				new SaldoMensal(1l, 2019, 1, BigDecimal.valueOf(50), BigDecimal.valueOf(80)),
+				new SaldoMensal(1l, 2019, 2, BigDecimal.ZERO, BigDecimal.TEN)));
+
+		List<RelatorioMensalDto> relatorio = service.obterRelatorio(1l, 2019);
+
+		Assertions.assertThat(relatorio).extracting(RelatorioMensalDto::getMes).containsExactly(1, 2);
+		Assertions.assertThat(relatorio.get(0).getSaldo()).isEqualByComparingTo("-30");
+		Assertions.assertThat(relatorio.get(0).getAcumulado()).isEqualByComparingTo("40");
+		Assertions.assertThat(relatorio.get(1).getAcumulado()).isEqualByComparingTo("30");
+	}
+}
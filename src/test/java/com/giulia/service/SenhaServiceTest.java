@@ -0,0 +1,38 @@
+package com.giulia.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.giulia.service.impl.SenhaServiceImp;
+
+public class SenhaServiceTest {
+
+	SenhaServiceImp service = new SenhaServiceImp(4, 1, 10);
+
+	@Test
+	public void deveCriptografarEConferirASenha() throws Exception {
+		String hash = service.criptografar("segredo");
+
+		Assertions.assertThat(hash).isNotEqualTo("segredo").startsWith("$2a$04$");
+		Assertions.assertThat(service.conferir("segredo", hash).get()).isTrue();
+		Assertions.assertThat(service.conferir("outra", hash).get()).isFalse();
+		Assertions.assertThat(service.precisaAtualizar(hash)).isFalse();
+	}
+
+	@Test
+	public void deveConferirSenhaLegadaEmTextoPuro() {
+		Assertions.assertThat(service.confere("segredo", "segredo")).isTrue();
+		Assertions.assertThat(service.confere("segred", "segredo")).isFalse();
+		Assertions.assertThat(service.confere(null, "segredo")).isFalse();
+		Assertions.assertThat(service.precisaAtualizar("segredo")).isTrue();
+	}
+
+	@Test
+	public void deveAtualizarSenhaComOutroCusto() {
+		String hash = new BCryptPasswordEncoder(5).encode("segredo");
+
+		Assertions.assertThat(service.confere("segredo", hash)).isTrue();
+		Assertions.assertThat(service.precisaAtualizar(hash)).isTrue();
+	}
+}
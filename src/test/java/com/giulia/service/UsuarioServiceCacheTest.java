@@ -0,0 +1,106 @@
+package com.giulia.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.giulia.datasource.RoteamentoLeitura;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.cache.CacheUsuario;
+import com.giulia.service.impl.UsuarioServiceImp;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+public class UsuarioServiceCacheTest {
+
+	@Configuration
+	@EnableCaching
+	@Import({ UsuarioServiceImp.class, RoteamentoLeitura.class })
+	static class Config {
+		@Bean
+		CacheManager cacheManager() {
+			return new CaffeineCacheManager(CacheUsuario.POR_ID, CacheUsuario.POR_EMAIL);
+		}
+	}
+
+	@Autowired
+	UsuarioService service;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@MockBean
+	UsuarioRepository repository;
+
+	@MockBean
+	SenhaService senhaService;
+
+	@Test
+	public void deveConsultarOBancoUmaVezPorUsuario() {
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+
+		service.obterPorId(1l);
+		Optional<Usuario> usuario = service.obterPorId(1l);
+
+		Assertions.assertThat(usuario).isPresent();
+		Mockito.verify(repository, Mockito.times(1)).findById(1l);
+	}
+
+	@Test
+	public void naoDeveGuardarUsuarioInexistente() {
+		Mockito.when(repository.findById(2l)).thenReturn(Optional.empty());
+
+		service.obterPorId(2l);
+		service.obterPorId(2l);
+
+		Mockito.verify(repository, Mockito.times(2)).findById(2l);
+	}
+
+	@Test
+	public void deveInvalidarOCacheAoSalvarUsuario() {
+		Usuario usuario = Usuario.builder().id(3l).email("usuario@email.com").build();
+		Mockito.when(repository.findById(3l)).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
+		service.obterPorId(3l);
+		cacheManager.getCache(CacheUsuario.POR_EMAIL).put("usuario@email.com", Optional.of(usuario));
+
+		service.salvarUsuario(usuario);
+
+		Assertions.assertThat(cacheManager.getCache(CacheUsuario.POR_ID).get(3l)).isNull();
+		Assertions.assertThat(cacheManager.getCache(CacheUsuario.POR_EMAIL).get("usuario@email.com")).isNull();
+	}
+
+	@Test
+	public void deveInvalidarOCacheAoRecriptografarASenhaNoLogin() {
+		Usuario usuario = Usuario.builder().id(4l).email("legado@email.com").senha("123").build();
+		Mockito.when(repository.findById(4l)).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.findByEmail("legado@email.com")).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenAnswer(i -> i.getArgument(0));
+		Mockito.when(senhaService.conferir("123", "123")).thenReturn(CompletableFuture.completedFuture(true));
+		Mockito.when(senhaService.precisaAtualizar("123")).thenReturn(true);
+		Mockito.when(senhaService.criptografar("123")).thenReturn("$2a$hash");
+		service.obterPorId(4l);
+		cacheManager.getCache(CacheUsuario.POR_EMAIL).put("legado@email.com", Optional.of(usuario));
+
+		Assertions.assertThat(service.autenticar("legado@email.com", "123").getSenha()).isEqualTo("$2a$hash");
+
+		Assertions.assertThat(usuario.getSenha()).isEqualTo("123");
+		Assertions.assertThat(cacheManager.getCache(CacheUsuario.POR_ID).get(4l)).isNull();
+		Assertions.assertThat(cacheManager.getCache(CacheUsuario.POR_EMAIL).get("legado@email.com")).isNull();
+	}
+}
@@ -9,17 +9,21 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.giulia.datasource.RoteamentoLeitura;
 import com.giulia.exception.ErroAutenticacao;
 import com.giulia.exception.RegraNegocioException;
 import com.giulia.model.entity.Usuario;
 import com.giulia.model.repository.UsuarioRepository;
+import com.giulia.service.impl.SenhaServiceImp;
 import com.giulia.service.impl.UsuarioServiceImp;
 
 @RunWith(SpringRunner.class)
 @ActiveProfiles("test")
+@Import(RoteamentoLeitura.class)
 public class UsuarioServiceTest {
 
 //	Utilização de mocks pois esses testes são de UNIDADE, devem validar apenas comportamento de métodos,
@@ -31,6 +35,9 @@ public class UsuarioServiceTest {
 	@MockBean // cria instância mockada
 	UsuarioRepository repository;
 
+	@SpyBean // BCrypt de verdade (custo baixo no perfil de teste) e legado em texto puro
+	SenhaServiceImp senhaService;
+
 	// espera que nenhuma excessão seja lançada
 	@Test(expected = Test.None.class)
 	public void deveValidarEmail() {
@@ -53,12 +60,40 @@ public class UsuarioServiceTest {
 
 		Usuario usuario = Usuario.builder().email(email).senha(senha).id(1l).build();
 		Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenAnswer(i -> i.getArgument(0)); // senha legada
 
 		// acao
 		Usuario result = service.autenticar(email, senha);
 		Assertions.assertThat(result).isNotNull();
 	}
 
+	@Test
+	public void deveAutenticarComSenhaCriptografadaSemRecriptografar() {
+		Usuario usuario = Usuario.builder().email("email@email.com").senha(senhaService.criptografar("123")).id(1l)
+				.build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+
+		Usuario result = service.autenticar("email@email.com", "123");
+
+		Assertions.assertThat(result.getId()).isEqualTo(1l);
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Usuario.class));
+	}
+
+	@Test
+	public void deveRecriptografarSenhaLegadaAoAutenticar() {
+		Usuario usuario = Usuario.builder().email("email@email.com").senha("123").id(1l).build();
+		Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+		Mockito.when(repository.save(Mockito.any(Usuario.class))).thenAnswer(i -> i.getArgument(0));
+
+		Usuario result = service.autenticar("email@email.com", "123");
+
+		Assertions.assertThat(result.getSenha()).startsWith("$2a$");
+		Assertions.assertThat(senhaService.confere("123", result.getSenha())).isTrue();
+		Mockito.verify(repository).save(result);
+		// a instância lida (que pode estar no cache) não é alterada
+		Assertions.assertThat(usuario.getSenha()).isEqualTo("123");
+	}
+
 	@Test
 	public void deveLancarErroAoNaoEncontrarUsuarioComEmail() {
 		Mockito.when(repository.findByEmail(Mockito.anyString())).thenReturn(Optional.empty());
@@ -88,6 +123,7 @@ public class UsuarioServiceTest {
 		Assertions.assertThat(result.getId()).isEqualTo(1l);
 		Assertions.assertThat(result.getEmail()).isEqualTo("email.com");
 		Assertions.assertThat(result.getSenha()).isEqualTo("123");
+		Mockito.verify(senhaService).criptografar(Mockito.any());
 		Assertions.assertThat(result.getNome()).isEqualTo("nome");
 	}
 
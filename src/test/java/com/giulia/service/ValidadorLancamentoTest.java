@@ -0,0 +1,88 @@
+package com.giulia.service;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.giulia.exception.ValidacaoLancamentoException;
+import com.giulia.model.entity.Lancamento;
+import com.giulia.model.entity.Usuario;
+import com.giulia.model.enums.StatusLancamento;
+import com.giulia.model.enums.TipoLancamento;
+import com.giulia.service.validacao.ErroValidacao;
+import com.giulia.service.validacao.ValidadorLancamento;
+
+public class ValidadorLancamentoTest {
+
+	@Test
+	public void deveAceitarUmLancamentoValido() {
+		Assertions.assertThat(ValidadorLancamento.verificar(valido())).isEqualTo(ValidadorLancamento.VALIDO);
+	}
+
+	@Test
+	public void deveJuntarTodasAsViolacoesEmOrdemDeCampo() {
+		Lancamento lancamento = Lancamento.builder().descricao(" \t ").mes(0).ano(-100).valor(BigDecimal.ZERO)
+				.build();
+
+		int violacoes = ValidadorLancamento.verificar(lancamento);
+
+		Assertions.assertThat(ValidadorLancamento.erros(violacoes)).containsExactly(ErroValidacao.values());
+		ValidacaoLancamentoException erro = new ValidacaoLancamentoException(violacoes);
+		Assertions.assertThat(erro).hasMessage("Informe uma Descrição válida");
+		Assertions.assertThat(erro.getErros()).hasSize(ErroValidacao.values().length);
+	}
+
+	@Test
+	public void deveConferirOAnoPorFaixa() {
+		Lancamento lancamento = valido();
+		for (int ano : new int[] { 999, 10000, -999 }) {
+			lancamento.setAno(ano);
+			Assertions.assertThat(ValidadorLancamento.erros(ValidadorLancamento.verificar(lancamento)))
+					.containsExactly(ErroValidacao.ANO_INVALIDO);
+		}
+		lancamento.setAno(1000);
+		Assertions.assertThat(ValidadorLancamento.verificar(lancamento)).isEqualTo(ValidadorLancamento.VALIDO);
+	}
+
+	@Test
+	public void deveConverterNomesSemExcecao() {
+		Assertions.assertThat(TipoLancamento.porNome(new String("RECEITA"))).isEqualTo(TipoLancamento.RECEITA);
+		Assertions.assertThat(TipoLancamento.porNome("receita")).isNull();
+		Assertions.assertThat(TipoLancamento.porNome(null)).isNull();
+		Assertions.assertThat(StatusLancamento.porNome("EFETIVADO")).isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(StatusLancamento.porNome("PAGO")).isNull();
+	}
+
+	@Test
+	public void naoDeveAlocarNoCaminhoDeSucesso() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) threads;
+		Assume.assumeTrue(medidor.isThreadAllocatedMemorySupported() && medidor.isThreadAllocatedMemoryEnabled());
+		Lancamento lancamento = valido();
+		String tipo = new String("DESPESA");
+		long id = Thread.currentThread().getId();
+
+		int soma = 0;
+		for (int i = 0; i < 20_000; i++) { // aquecimento
+			soma += ValidadorLancamento.verificar(lancamento) + TipoLancamento.porNome(tipo).ordinal();
+		}
+		long antes = medidor.getThreadAllocatedBytes(id);
+		for (int i = 0; i < 100_000; i++) {
+			soma += ValidadorLancamento.verificar(lancamento) + TipoLancamento.porNome(tipo).ordinal();
+		}
+		long alocados = medidor.getThreadAllocatedBytes(id) - antes;
+
+		Assertions.assertThat(soma).isEqualTo(120_000 * TipoLancamento.DESPESA.ordinal());
+		// a própria medição aloca algumas dezenas de bytes; 100 mil chamadas alocando dariam megabytes
+		Assertions.assertThat(alocados).isLessThan(1024);
+	}
+
+	private Lancamento valido() {
+		return Lancamento.builder().descricao("Mercado").mes(6).ano(2017).valor(BigDecimal.valueOf(150))
+				.tipo(TipoLancamento.DESPESA).usuario(Usuario.builder().id(1l).build()).build();
+	}
+}